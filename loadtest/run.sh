@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+# Полный нагрузочный прогон на одной машине:
+#   1. PostgreSQL в контейнере;
+#   2. приложение из собранного jar (миграции Liquibase создают схему);
+#   3. заполнение users ROWS строками;
+#   4. Gatling со смешанной нагрузкой в открытой модели;
+#   5. RSS и число потоков приложения до нагрузки и пиковые под нагрузкой.
+#
+# Параметры окружения:
+#   VARIANT       servlet (по умолчанию) или reactive — модуль userapi-reactive
+#   ROWS          число строк в users (по умолчанию 1000000)
+#   APP_OPTS      дополнительные опции JVM приложения
+#   GATLING_OPTS  -D параметры симуляции: -DgetRate=500 -DdurationSeconds=600 ...
+set -euo pipefail
+
+VARIANT=${VARIANT:-servlet}
+ROWS=${ROWS:-1000000}
+APP_OPTS=${APP_OPTS:-}
+GATLING_OPTS=${GATLING_OPTS:-}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+COMPOSE="docker compose -f loadtest/docker-compose.yml"
+
+cd "$(dirname "$0")/.."
+
+$COMPOSE up -d --wait
+
+mvn -B -q -DskipTests package
+APP_JAR=$(ls target/userapi-*.jar | head -1)
+if [ "$VARIANT" = reactive ]; then
+  # Реактивный вариант не выполняет миграции: схему создает Liquibase основного модуля
+  java -Dspring.main.web-application-type=none -Dspring.context.exit=onRefresh -jar "$APP_JAR" \
+    > target/loadtest-migrate.log 2>&1
+  mvn -B -q -f userapi-reactive/pom.xml -DskipTests package
+  APP_JAR=$(ls userapi-reactive/target/userapi-reactive-*.jar | head -1)
+fi
+# Вся нагрузка идёт с одного адреса, а лимит на клиента считается по адресу: для прогона он выключен
+# shellcheck disable=SC2086
+java -Duserapi.admission.client-rate-per-second=0 $APP_OPTS -jar "$APP_JAR" > target/loadtest-app.log 2>&1 &
+APP_PID=$!
+trap 'kill $APP_PID 2>/dev/null || true' EXIT
+
+until curl -fs "$BASE_URL/actuator/health" > /dev/null; do
+  if ! kill -0 $APP_PID 2>/dev/null; then
+    echo "Приложение не запустилось, см. target/loadtest-app.log" >&2
+    exit 1
+  fi
+  sleep 1
+done
+
+$COMPOSE exec -T postgres psql -q -U postgres -v ON_ERROR_STOP=1 -v rows="$ROWS" -f - < loadtest/seed.sql
+
+rss_kb() {
+  ps -o rss= -p $APP_PID | tr -d ' '
+}
+
+threads() {
+  ps -o nlwp= -p $APP_PID | tr -d ' '
+}
+
+IDLE_RSS=$(rss_kb)
+IDLE_THREADS=$(threads)
+echo "$IDLE_RSS $IDLE_THREADS" > target/loadtest-peak.txt
+(
+  while kill -0 $APP_PID 2> /dev/null; do
+    read -r peak_rss peak_threads < target/loadtest-peak.txt
+    rss=$(rss_kb || echo 0)
+    thr=$(threads || echo 0)
+    echo "$((rss > peak_rss ? rss : peak_rss)) $((thr > peak_threads ? thr : peak_threads))" > target/loadtest-peak.txt
+    sleep 1
+  done
+) &
+SAMPLER_PID=$!
+trap 'kill $SAMPLER_PID $APP_PID 2>/dev/null || true' EXIT
+
+# shellcheck disable=SC2086
+mvn -B -Pload-test -DskipTests -DbaseUrl="$BASE_URL" -DseededUsers="$ROWS" $GATLING_OPTS verify
+
+read -r PEAK_RSS PEAK_THREADS < target/loadtest-peak.txt
+echo "Вариант $VARIANT: RSS ${IDLE_RSS} КБ -> ${PEAK_RSS} КБ, потоков ${IDLE_THREADS} -> ${PEAK_THREADS}"
+echo "Отчёт: $(ls -td target/gatling/*/ | head -1)index.html"
@@ -0,0 +1,16 @@
+-- Заполнение таблицы users: psql -v rows=1000000 -f loadtest/seed.sql
+-- Идентификаторы задаются явно (1..rows), чтобы нагрузка на чтение могла выбирать
+-- существующие id случайно; затем последовательность сдвигается за последний id.
+TRUNCATE users;
+
+INSERT INTO users (id, name, email, age, created_at)
+SELECT g,
+       'User ' || g,
+       'user' || g || '@seed.test',
+       18 + g % 60,
+       localtimestamp - (g % 365) * interval '1 day'
+FROM generate_series(1, :rows) AS g;
+
+SELECT setval('users_id_seq', :rows);
+
+VACUUM ANALYZE users;
@@ -0,0 +1,89 @@
+#!/usr/bin/env bash
+# Замер старта в разных режимах на одной машине:
+#   jar      обычный fat jar;
+#   cds      распакованный jar + архив CDS;
+#   aot-cds  распакованный jar + архив CDS + AOT-контекст (-Dspring.aot.enabled=true).
+# jar и cds запускаются без прогрева и с прогревом (USERAPI_WARM_UP), aot-cds — только с прогревом:
+# AOT фиксирует бин прогрева при сборке, и USERAPI_WARM_UP=false на старте его не выключает.
+#
+# Для каждого запуска печатается:
+#   started     время "Started Main in ..." из лога Spring Boot, с;
+#   ready       от запуска процесса до /actuator/health/readiness = UP, мс;
+#   first       задержка первого GET /userapi/users/{id} после readiness, мс;
+#   fast        от запуска процесса до первого GET быстрее FAST_MS, мс.
+#
+# Параметры окружения:
+#   ROWS     число строк в users (по умолчанию 100000)
+#   RUNS     запусков на режим (по умолчанию 3)
+#   FAST_MS  порог "быстрого" запроса, мс (по умолчанию 5)
+set -euo pipefail
+
+ROWS=${ROWS:-100000}
+RUNS=${RUNS:-3}
+FAST_MS=${FAST_MS:-5}
+BASE_URL=http://localhost:8080
+COMPOSE="docker compose -f loadtest/docker-compose.yml"
+
+cd "$(dirname "$0")/.."
+ROOT=$(pwd)
+
+$COMPOSE up -d --wait
+mvn -B -q -Pfast-startup -DskipTests package
+JAR=$(ls target/userapi-*.jar | head -1)
+EXTRACTED=target/fast-startup/$(basename "$JAR")
+
+now_ms() {
+  date +%s%3N
+}
+
+run() {
+  local mode=$1 warm_up=$2
+  shift 2
+  local log=$ROOT/target/startup-$mode-$warm_up.log
+  local start
+  start=$(now_ms)
+  USERAPI_WARM_UP=$warm_up java "$@" > "$log" 2>&1 &
+  local pid=$!
+  until curl -fs "$BASE_URL/actuator/health/readiness" 2> /dev/null | grep -q UP; do
+    if ! kill -0 $pid 2> /dev/null; then
+      echo "Приложение не запустилось, см. $log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  local ready=$(($(now_ms) - start))
+
+  local first="" fast="" latency id=1
+  while [ -z "$fast" ] && [ $id -le 10000 ]; do
+    latency=$(curl -s -o /dev/null -w '%{time_total}' "$BASE_URL/userapi/users/$id")
+    latency=$(awk -v t="$latency" 'BEGIN { printf "%.1f", t * 1000 }')
+    [ -z "$first" ] && first=$latency
+    if awk -v l="$latency" -v f="$FAST_MS" 'BEGIN { exit !(l < f) }'; then
+      fast=$(($(now_ms) - start))
+    fi
+    id=$((id + 1))
+  done
+
+  local started
+  started=$(grep -o 'Started Main in [0-9.]* seconds' "$log" | grep -o '[0-9.]*' | head -1)
+  printf '%-8s warm-up=%-5s started=%ss ready=%sms first=%sms fast=%sms\n' \
+    "$mode" "$warm_up" "$started" "$ready" "$first" "${fast:-n/a}"
+
+  kill $pid
+  wait $pid 2> /dev/null || true
+}
+
+# Первый запуск применяет миграции Liquibase, после него таблица заполняется
+run migrate false -jar "$JAR" > /dev/null
+$COMPOSE exec -T postgres psql -q -U postgres -v ON_ERROR_STOP=1 -v rows="$ROWS" -f - < loadtest/seed.sql
+
+for warm_up in false true; do
+  for _ in $(seq "$RUNS"); do
+    run jar "$warm_up" -jar "$JAR"
+    (cd target/fast-startup && run cds "$warm_up" -XX:SharedArchiveFile=application.jsa -jar "$(basename "$EXTRACTED")")
+    if [ "$warm_up" = true ]; then
+      (cd target/fast-startup && run aot-cds "$warm_up" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+        -jar "$(basename "$EXTRACTED")")
+    fi
+  done
+done
@@ -0,0 +1,127 @@
+package org.intensiv.userapi.loadtest;
+
+import io.gatling.javaapi.core.PopulationBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+public class UserApiSimulation extends Simulation {
+    private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+    private static final Duration RAMP = Duration.ofSeconds(Long.getLong("rampSeconds", 30));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("durationSeconds", 300));
+    private static final long SEEDED_USERS = Long.getLong("seededUsers", 1_000_000);
+    private static final int PAGE_SIZE = Integer.getInteger("pageSize", 20);
+
+    private static final double CREATE_RATE = rate("createRate", 20);
+    private static final double GET_RATE = rate("getRate", 200);
+    private static final double LIST_RATE = rate("listRate", 20);
+    private static final double PATCH_RATE = rate("patchRate", 20);
+    private static final double DELETE_RATE = rate("deleteRate", 5);
+    // Закрытая модель: столько одновременных запросов, а значит и открытых соединений, держится весь прогон.
+    // Рост RSS сервиса, деленный на это число, — память на соединение при сравнении servlet и reactive.
+    private static final int CONCURRENT_USERS = Integer.getInteger("concurrentUsers", 0);
+
+    private final Iterator<Map<String, Object>> feeder = Stream.generate(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = random.nextLong(1, SEEDED_USERS + 1);
+        return Map.<String, Object>of(
+                "userId", userId,
+                "cursor", cursor(userId),
+                "email", "load-" + UUID.randomUUID() + "@load.test",
+                "age", random.nextInt(18, 80));
+    }).iterator();
+
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json")
+            .contentTypeHeader("application/json")
+            .shareConnections();
+
+    private final ScenarioBuilder create = scenario("create")
+            .feed(feeder)
+            .exec(http("create")
+                    .post("/userapi/users")
+                    .body(StringBody("{\"name\":\"Load User\",\"email\":\"#{email}\",\"age\":#{age}}"))
+                    .check(status().is(200)));
+
+    private final ScenarioBuilder get = scenario("get")
+            .feed(feeder)
+            .exec(http("get")
+                    .get("/userapi/users/#{userId}")
+                    .check(status().is(200)));
+
+    private final ScenarioBuilder list = scenario("list")
+            .feed(feeder)
+            .exec(http("list")
+                    .get("/userapi/users?limit=" + PAGE_SIZE + "&after=#{cursor}")
+                    .check(status().is(200)));
+
+    private final ScenarioBuilder patch = scenario("patch")
+            .feed(feeder)
+            .exec(http("patch")
+                    .patch("/userapi/users/#{userId}")
+                    .body(StringBody("{\"age\":#{age}}"))
+                    .check(status().is(200)));
+
+    private final ScenarioBuilder delete = scenario("delete")
+            .feed(feeder)
+            .exec(http("create-for-delete")
+                    .post("/userapi/users")
+                    .body(StringBody("{\"name\":\"Load User\",\"email\":\"#{email}\",\"age\":#{age}}"))
+                    .check(status().is(200), jsonPath("$.id").saveAs("createdId")))
+            .exec(http("delete")
+                    .delete("/userapi/users/#{createdId}")
+                    .check(status().is(204)));
+
+    private final ScenarioBuilder concurrent = scenario("concurrent")
+            .forever().on(feed(feeder)
+                    .exec(http("concurrent-get")
+                            .get("/userapi/users/#{userId}")
+                            .check(status().is(200))));
+
+    {
+        List<PopulationBuilder> populations = new ArrayList<>();
+        addOpenWorkload(populations, create, CREATE_RATE);
+        addOpenWorkload(populations, get, GET_RATE);
+        addOpenWorkload(populations, list, LIST_RATE);
+        addOpenWorkload(populations, patch, PATCH_RATE);
+        addOpenWorkload(populations, delete, DELETE_RATE);
+        if (CONCURRENT_USERS > 0) {
+            populations.add(concurrent.injectClosed(
+                    rampConcurrentUsers(0).to(CONCURRENT_USERS).during(RAMP),
+                    constantConcurrentUsers(CONCURRENT_USERS).during(DURATION)));
+        }
+        setUp(populations).protocols(httpProtocol).maxDuration(RAMP.plus(DURATION));
+    }
+
+    private static void addOpenWorkload(List<PopulationBuilder> populations, ScenarioBuilder scenario, double rate) {
+        if (rate > 0) {
+            populations.add(scenario.injectOpen(
+                    rampUsersPerSec(0).to(rate).during(RAMP),
+                    constantUsersPerSec(rate).during(DURATION)));
+        }
+    }
+
+    private static double rate(String property, double defaultRate) {
+        return Double.parseDouble(System.getProperty(property, Double.toString(defaultRate)));
+    }
+
+    private static String cursor(long userId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(userId).getBytes(StandardCharsets.UTF_8));
+    }
+}
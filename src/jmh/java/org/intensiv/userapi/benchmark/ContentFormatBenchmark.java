@@ -0,0 +1,88 @@
+package org.intensiv.userapi.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.intensiv.userapi.dto.request.CreateUserRequestDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentFormatBenchmark {
+    private static final TypeReference<List<UserResponseDto>> USER_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<CreateUserRequestDto>> CREATE_REQUEST_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"100", "10000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+    private List<UserResponseDto> users;
+    private List<CreateUserRequestDto> createRequests;
+    private byte[] usersPayload;
+    private byte[] createRequestsPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        objectMapper = switch (format) {
+            case "json" -> builder.build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        users = LongStream.rangeClosed(1, listSize)
+                .mapToObj(id -> new UserResponseDto(id, "User " + id, "user" + id + "@gmail.com"))
+                .toList();
+        createRequests = LongStream.rangeClosed(1, listSize)
+                .mapToObj(id -> new CreateUserRequestDto("User " + id, "user" + id + "@gmail.com", (int) (18 + id % 60)))
+                .toList();
+        usersPayload = objectMapper.writeValueAsBytes(users);
+        createRequestsPayload = objectMapper.writeValueAsBytes(createRequests);
+        // Размер тела не меняется между итерациями, поэтому печатается один раз на форк
+        System.out.printf("%n%s listSize=%d: users=%d bytes (gzip %d), createRequests=%d bytes (gzip %d)%n",
+                format, listSize, usersPayload.length, gzipSize(usersPayload),
+                createRequestsPayload.length, gzipSize(createRequestsPayload));
+    }
+
+    @Benchmark
+    public byte[] writeUserList() throws IOException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<UserResponseDto> readUserList() throws IOException {
+        return objectMapper.readValue(usersPayload, USER_LIST);
+    }
+
+    @Benchmark
+    public List<CreateUserRequestDto> readCreateRequests() throws IOException {
+        return objectMapper.readValue(createRequestsPayload, CREATE_REQUEST_LIST);
+    }
+
+    private static int gzipSize(byte[] payload) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(payload);
+        }
+        return compressed.size();
+    }
+}
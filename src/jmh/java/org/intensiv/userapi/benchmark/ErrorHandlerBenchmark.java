@@ -0,0 +1,59 @@
+package org.intensiv.userapi.benchmark;
+
+import org.intensiv.userapi.exception.DuplicateEmailException;
+import org.intensiv.userapi.exception.GlobalExceptionHandler;
+import org.intensiv.userapi.exception.UserApiException;
+import org.intensiv.userapi.exception.UserNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorHandlerBenchmark {
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private UserNotFoundException userNotFoundException;
+    private DuplicateEmailException duplicateEmailException;
+    private long id = 1_000_000L;
+
+    @Setup
+    public void setUp() {
+        UserApiException.setStackTraces(Boolean.getBoolean("userapi.exceptions.stack-traces"));
+        userNotFoundException = new UserNotFoundException(id);
+        duplicateEmailException = new DuplicateEmailException("Пользователь с email krasikov.roman@gmail.com уже существует");
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handleUserNotFound() {
+        return handler.handleUserNotFoundException(userNotFoundException);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handleDuplicateEmail() {
+        return handler.handleDuplicateEmailException(duplicateEmailException);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> throwAndHandleUserNotFound() {
+        return throwAndHandle();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Duserapi.exceptions.stack-traces=true")
+    public ResponseEntity<?> throwAndHandleUserNotFoundWithStackTrace() {
+        return throwAndHandle();
+    }
+
+    private ResponseEntity<?> throwAndHandle() {
+        try {
+            throw new UserNotFoundException(id++);
+        } catch (UserNotFoundException e) {
+            return handler.handleUserNotFoundException(e);
+        }
+    }
+}
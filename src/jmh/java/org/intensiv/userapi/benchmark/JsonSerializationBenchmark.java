@@ -0,0 +1,59 @@
+package org.intensiv.userapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.intensiv.userapi.dto.response.UserPageResponseDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    @Param({"100", "10000"})
+    private int listSize;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private UserResponseDto userResponseDto;
+    private List<UserResponseDto> users;
+    private UserPageResponseDto page;
+    private byte[] userJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        userResponseDto = new UserResponseDto(1L, "Роман Красиков", "krasikov.roman@gmail.com");
+        users = LongStream.rangeClosed(1, listSize)
+                .mapToObj(id -> new UserResponseDto(id, "User " + id, "user" + id + "@gmail.com"))
+                .toList();
+        page = new UserPageResponseDto(users.subList(0, Math.min(100, listSize)), "MTAw");
+        userJson = objectMapper.writeValueAsBytes(userResponseDto);
+    }
+
+    @Benchmark
+    public byte[] writeUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userResponseDto);
+    }
+
+    @Benchmark
+    public UserResponseDto readUser() throws Exception {
+        return objectMapper.readValue(userJson, UserResponseDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeUserList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] writeUserPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,117 @@
+package org.intensiv.userapi.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.intensiv.Main;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.entity.User;
+import org.intensiv.userapi.mapper.UserMapper;
+import org.intensiv.userapi.repository.UserKeyset;
+import org.intensiv.userapi.repository.UserRepository;
+import org.intensiv.userapi.repository.UserSearchRow;
+import org.intensiv.userapi.repository.UserSortField;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Сравнивает чтение через управляемые сущности + UserMapper с чтением сразу в UserResponseDto.
+// Поднимает PostgreSQL в Testcontainers и контекст приложения без веб-слоя, нужен Docker.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadPathBenchmark {
+    private static final int USERS = 100_000;
+    private static final int PAGE_SIZE = 100;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private UserMapper userMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16.3");
+        postgres.start();
+        context = new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--userapi.cache.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.intensiv=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+        context.getBean(JdbcTemplate.class).update("""
+                INSERT INTO users (id, name, email, age, created_at)
+                SELECT g, 'User ' || g, 'user' || g || '@bench.test', 18 + g % 60, localtimestamp
+                FROM generate_series(1, ?) AS g""", USERS);
+        context.getBean(JdbcTemplate.class).execute("VACUUM ANALYZE users");
+
+        userRepository = context.getBean(UserRepository.class);
+        userMapper = context.getBean(UserMapper.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public UserResponseDto getUserViaEntity() {
+        long id = randomId();
+        return readOnlyTransaction.execute(status -> userRepository.findById(id)
+                .map(userMapper::toUserResponseDto)
+                .orElseThrow());
+    }
+
+    @Benchmark
+    public UserResponseDto getUserViaProjection() {
+        long id = randomId();
+        return readOnlyTransaction.execute(status -> userRepository.findResponseById(id).orElseThrow());
+    }
+
+    @Benchmark
+    public List<UserResponseDto> pageViaEntity() {
+        long after = randomId() - PAGE_SIZE;
+        return readOnlyTransaction.execute(status -> entityManager
+                .createQuery("select u from User u where u.id > :after order by u.id", User.class)
+                .setParameter("after", after)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList()
+                .stream()
+                .map(userMapper::toUserResponseDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<UserSearchRow> pageViaProjection() {
+        long after = randomId() - PAGE_SIZE;
+        return readOnlyTransaction.execute(status -> userRepository.search(UserFilterRequestDto.NONE,
+                UserSortField.ID, Sort.Direction.ASC, new UserKeyset(after, after), PAGE_SIZE));
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(PAGE_SIZE + 1, USERS + 1);
+    }
+}
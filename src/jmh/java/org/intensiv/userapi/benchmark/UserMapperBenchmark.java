@@ -0,0 +1,48 @@
+package org.intensiv.userapi.benchmark;
+
+import org.intensiv.userapi.dto.request.CreateUserRequestDto;
+import org.intensiv.userapi.dto.request.UpdateUserRequestDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.entity.User;
+import org.intensiv.userapi.mapper.UserMapper;
+import org.intensiv.userapi.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+    private final UserMapper userMapper = new UserMapperImpl();
+    private User user;
+    private CreateUserRequestDto createUserRequestDto;
+    private UpdateUserRequestDto updateUserRequestDto;
+
+    @Setup
+    public void setUp() {
+        user = new User("Роман Красиков", "krasikov.roman@gmail.com", 26);
+        user.setId(1L);
+        createUserRequestDto = new CreateUserRequestDto("Роман Красиков", "krasikov.roman@gmail.com", 26);
+        updateUserRequestDto = new UpdateUserRequestDto("Роман", null, 27);
+    }
+
+    @Benchmark
+    public UserResponseDto toUserResponseDto() {
+        return userMapper.toUserResponseDto(user);
+    }
+
+    @Benchmark
+    public User toUserEntity() {
+        return userMapper.toUserEntity(createUserRequestDto);
+    }
+
+    @Benchmark
+    public User updateUserFromDto() {
+        userMapper.updateUserFromDto(updateUserRequestDto, user);
+        return user;
+    }
+}
@@ -0,0 +1,47 @@
+package org.intensiv.userapi.benchmark;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.intensiv.userapi.dto.request.CreateUserRequestDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private CreateUserRequestDto validDto;
+    private CreateUserRequestDto invalidDto;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validDto = new CreateUserRequestDto("Роман Красиков", "krasikov.roman@gmail.com", 26);
+        invalidDto = new CreateUserRequestDto("", "not-an-email", 200);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateUserRequestDto>> validateValid() {
+        return validator.validate(validDto);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateUserRequestDto>> validateInvalid() {
+        return validator.validate(invalidDto);
+    }
+}
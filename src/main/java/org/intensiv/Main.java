@@ -12,6 +12,9 @@ public class Main {
         try {
             log.info("Запуск user-service");
             SpringApplication.run(Main.class, args);
+        } catch (SpringApplication.AbandonedRunException e) {
+            // Запуск намеренно прерывают process-aot и spring.context.exit=onRefresh, им нужно само исключение
+            throw e;
         } catch (Exception e) {
             log.error("Критическая ошибка при запуске приложения", e);
         } finally {
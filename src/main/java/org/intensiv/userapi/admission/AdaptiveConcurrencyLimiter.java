@@ -0,0 +1,78 @@
+package org.intensiv.userapi.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Градиентный лимит: пока задержка держится у долгосрочного среднего, лимит растёт на sqrt(limit);
+// когда задержка растёт (запросы ждут соединение), лимит уменьшается пропорционально longRtt / rtt.
+public class AdaptiveConcurrencyLimiter {
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_RTT_WINDOW = 600;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    // dropped — запрос завершился 5xx (таймаут пула, ошибка базы): его задержка не показательна,
+    // но сам отказ — сигнал перегрузки, лимит уменьшается сразу
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        if (dropped) {
+            onDropped();
+        } else if (rttNanos > 0) {
+            onSample(rttNanos, inFlightAtRelease);
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onDropped() {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtRelease) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / LONG_RTT_WINDOW;
+        }
+        // Недогруженный лимит не растёт: нет данных о том, выдержит ли база больше
+        if (inFlightAtRelease * 2 < limit) {
+            return;
+        }
+        // Долгая перегрузка задирает longRtt; подтягиваем его вниз, чтобы лимит мог восстановиться
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        double gradient = Math.clamp(RTT_TOLERANCE * longRttNanos / rttNanos, 0.5, 1.0);
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.clamp(newLimit, minLimit, maxLimit);
+    }
+}
@@ -0,0 +1,30 @@
+package org.intensiv.userapi.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+public enum Bulkhead {
+    POINT_READ,
+    WRITE,
+    SCAN;
+
+    private static final String USERS_PATH = "/userapi/users";
+    private static final String CHANGES_PATH = USERS_PATH + "/changes";
+    private static final String LOOKUP_PATH = USERS_PATH + "/lookup";
+
+    public static Bulkhead of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            if ((path.equals(USERS_PATH) && request.getParameter("ids") == null) || path.startsWith(CHANGES_PATH)) {
+                return SCAN;
+            }
+            return POINT_READ;
+        }
+        return path.equals(LOOKUP_PATH) ? POINT_READ : WRITE;
+    }
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
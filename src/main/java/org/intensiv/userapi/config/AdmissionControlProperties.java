@@ -0,0 +1,21 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "userapi.admission")
+public record AdmissionControlProperties(@DefaultValue("true") boolean enabled,
+                                         @DefaultValue("2") int minLimit,
+                                         @DefaultValue("100") int pointReadMaxLimit,
+                                         @DefaultValue("40") int writeMaxLimit,
+                                         @DefaultValue("10") int scanMaxLimit,
+                                         @DefaultValue("1s") Duration retryAfter,
+                                         @DefaultValue("X-Client-Id") String clientIdHeader,
+                                         @DefaultValue({"127.0.0.1", "::1"}) List<String> trustedProxies,
+                                         @DefaultValue("50") int clientRatePerSecond,
+                                         @DefaultValue("100") int clientBurst,
+                                         @DefaultValue("100000") int maxTrackedClients) {
+}
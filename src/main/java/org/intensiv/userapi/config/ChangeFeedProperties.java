@@ -0,0 +1,18 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "userapi.change-feed")
+public record ChangeFeedProperties(@DefaultValue("100") int defaultLimit,
+                                   @DefaultValue("1000") int maxLimit,
+                                   @DefaultValue("7d") Duration retention,
+                                   @DefaultValue("1h") Duration pruneInterval,
+                                   @DefaultValue("10000") int pruneBatchSize,
+                                   @DefaultValue("1s") Duration streamPollInterval,
+                                   @DefaultValue("30m") Duration streamTimeout,
+                                   @DefaultValue("4") int streamSendThreads,
+                                   @DefaultValue("1000") int streamSendQueueCapacity) {
+}
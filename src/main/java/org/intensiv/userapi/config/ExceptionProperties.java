@@ -0,0 +1,8 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "userapi.exceptions")
+public record ExceptionProperties(@DefaultValue("true") boolean stackTraces) {
+}
@@ -0,0 +1,34 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class LiquibaseConfig {
+    public static final String LEGACY_TIME_ZONE_PARAMETER = "legacy_time_zone";
+
+    // Старые версии писали время в поясе JVM, миграция users_created_at_to_utc переводит его из этого пояса.
+    // Явное значение задается через spring.liquibase.parameters.legacy_time_zone
+    @Bean
+    public static BeanPostProcessor legacyTimeZoneParameterPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof LiquibaseProperties properties) {
+                    Map<String, String> parameters = properties.getParameters() == null
+                            ? new HashMap<>()
+                            : new HashMap<>(properties.getParameters());
+                    parameters.putIfAbsent(LEGACY_TIME_ZONE_PARAMETER, ZoneId.systemDefault().getId());
+                    properties.setParameters(parameters);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package org.intensiv.userapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.intensiv.userapi.filter.AddressMatcher;
+import org.intensiv.userapi.filter.RequestDebugFilter;
+import org.intensiv.userapi.logging.CountingAsyncAppender;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(LoggingProperties.class)
+public class LoggingConfig {
+    @Bean
+    public FilterRegistrationBean<RequestDebugFilter> requestDebugFilter(LoggingProperties properties) {
+        FilterRegistrationBean<RequestDebugFilter> registration = new FilterRegistrationBean<>(
+                new RequestDebugFilter(properties.debugSampleRate(),
+                        AddressMatcher.of(properties.debugTrustedAddresses())));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder droppedLogEventsMetrics() {
+        return registry -> FunctionCounter.builder("logback.events.dropped", CountingAsyncAppender.class,
+                        ignored -> CountingAsyncAppender.droppedEvents())
+                .description("Log events dropped by async appenders because the queue was full")
+                .register(registry);
+    }
+}
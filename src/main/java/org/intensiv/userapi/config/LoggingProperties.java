@@ -0,0 +1,11 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "userapi.logging")
+public record LoggingProperties(@DefaultValue("0") double debugSampleRate,
+                                @DefaultValue({"127.0.0.1", "::1"}) List<String> debugTrustedAddresses) {
+}
@@ -0,0 +1,9 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "userapi.pagination")
+public record PaginationProperties(@DefaultValue("20") int defaultLimit,
+                                   @DefaultValue("100") int maxLimit) {
+}
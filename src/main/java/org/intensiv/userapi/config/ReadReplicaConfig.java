@@ -0,0 +1,75 @@
+package org.intensiv.userapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.intensiv.userapi.datasource.CommitLsnDataSource;
+import org.intensiv.userapi.datasource.ReadReplicaDataSource;
+import org.intensiv.userapi.datasource.ReplicaMonitor;
+import org.intensiv.userapi.datasource.ReplicaNode;
+import org.intensiv.userapi.filter.ReadConsistencyFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@ConditionalOnProperty(prefix = "userapi.datasource.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaMonitor replicaMonitor(ReadReplicaProperties properties) {
+        return new ReplicaMonitor(replicaNodes(properties), properties.checkInterval());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaMonitor replicaMonitor,
+                                 ReadReplicaProperties properties) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new CommitLsnDataSource(primaryDataSource));
+        dataSource.setReadOnlyDataSource(
+                new ReadReplicaDataSource(primaryDataSource, replicaMonitor.getReplicas(), properties.maxLag()));
+        return dataSource;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadConsistencyFilter> readConsistencyFilter() {
+        FilterRegistrationBean<ReadConsistencyFilter> registration = new FilterRegistrationBean<>(
+                new ReadConsistencyFilter());
+        registration.addUrlPatterns("/userapi/*");
+        return registration;
+    }
+
+    private static List<ReplicaNode> replicaNodes(ReadReplicaProperties properties) {
+        List<ReplicaNode> nodes = new ArrayList<>();
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            ReadReplicaProperties.Replica replica = properties.replicas().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.url())
+                    .username(replica.username())
+                    .password(replica.password())
+                    .build();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setMaximumPoolSize(properties.maximumPoolSize());
+            dataSource.setReadOnly(true);
+            nodes.add(new ReplicaNode(dataSource.getPoolName(), dataSource));
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,17 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "userapi.datasource.read-replicas")
+public record ReadReplicaProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue List<Replica> replicas,
+                                    @DefaultValue("5s") Duration maxLag,
+                                    @DefaultValue("1s") Duration checkInterval,
+                                    @DefaultValue("10") int maximumPoolSize) {
+    public record Replica(String url, String username, String password) {
+    }
+}
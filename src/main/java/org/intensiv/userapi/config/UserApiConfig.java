@@ -0,0 +1,14 @@
+package org.intensiv.userapi.config;
+
+import org.intensiv.userapi.exception.UserApiException;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({PaginationProperties.class, MultiGetProperties.class, UserStatsProperties.class,
+        UserExportProperties.class, BatchCreateProperties.class, ExceptionProperties.class})
+public class UserApiConfig {
+    public UserApiConfig(ExceptionProperties exceptionProperties) {
+        UserApiException.setStackTraces(exceptionProperties.stackTraces());
+    }
+}
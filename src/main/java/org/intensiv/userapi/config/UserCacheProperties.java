@@ -0,0 +1,12 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "userapi.cache")
+public record UserCacheProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("10000") long maximumSize,
+                                  @DefaultValue("5m") Duration ttl) {
+}
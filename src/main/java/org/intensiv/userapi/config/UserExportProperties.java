@@ -0,0 +1,9 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "userapi.export")
+public record UserExportProperties(@DefaultValue("1000") int fetchSize,
+                                   @DefaultValue("2") int maxConcurrent) {
+}
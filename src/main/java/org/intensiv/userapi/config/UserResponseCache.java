@@ -0,0 +1,67 @@
+package org.intensiv.userapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+
+// Промах, прочитавший строку до коммита изменения, может положить ее в кэш уже после @CachePut
+// этого изменения. Поэтому запись не заменяется более старой версией пользователя, а удаление
+// оставляет метку, поверх которой ничего не кладется до истечения ttl: id не переиспользуются
+class UserResponseCache extends CaffeineCache {
+    private static final Object DELETED = new Object();
+
+    UserResponseCache(String name, Cache<Object, Object> cache) {
+        super(name, cache, false);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        return value == DELETED ? null : value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        getNativeCache().asMap().merge(key, toStoreValue(value),
+                (cached, loaded) -> isOlder(loaded, cached) ? cached : loaded);
+    }
+
+    @Override
+    public void evict(Object key) {
+        getNativeCache().put(key, DELETED);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        Object previous = getNativeCache().asMap().put(key, DELETED);
+        return previous != null && previous != DELETED;
+    }
+
+    private static boolean isOlder(Object loaded, Object cached) {
+        if (cached == DELETED) {
+            return true;
+        }
+        Long loadedVersion = ((UserResponseDto) loaded).version();
+        Long cachedVersion = ((UserResponseDto) cached).version();
+        return loadedVersion != null && cachedVersion != null && loadedVersion < cachedVersion;
+    }
+}
@@ -0,0 +1,12 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "userapi.stats")
+public record UserStatsProperties(@DefaultValue("10") int ageBucketWidth,
+                                  @DefaultValue("30") int signupDays,
+                                  @DefaultValue("10m") Duration reconcileInterval) {
+}
@@ -0,0 +1,36 @@
+package org.intensiv.userapi.config;
+
+import org.intensiv.userapi.datasource.ConnectionPermitDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@EnableConfigurationProperties(VirtualThreadProperties.class)
+public class VirtualThreadConfig {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // Оборачивается основной DataSource приложения (Hikari или прокси реплик), которым пользуются JPA и JdbcTemplate
+    @Bean
+    public static BeanPostProcessor connectionPermitDataSourcePostProcessor(
+            ObjectProvider<VirtualThreadProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                VirtualThreadProperties virtualThreadProperties = properties.getObject();
+                return new ConnectionPermitDataSource(dataSource, virtualThreadProperties.connectionPermits(),
+                        virtualThreadProperties.permitTimeout());
+            }
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "userapi.virtual-threads")
+public record VirtualThreadProperties(@DefaultValue("10") int connectionPermits,
+                                      @DefaultValue("500ms") Duration permitTimeout) {
+}
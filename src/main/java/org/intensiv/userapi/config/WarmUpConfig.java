@@ -0,0 +1,31 @@
+package org.intensiv.userapi.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.intensiv.userapi.startup.WarmUpRunner;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Objects;
+
+@Configuration
+@EnableConfigurationProperties(WarmUpProperties.class)
+@ConditionalOnProperty(prefix = "userapi.warm-up", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpConfig {
+    @Bean
+    public WarmUpRunner warmUpRunner(WarmUpProperties properties, Environment environment,
+                                     ObjectProvider<DataSource> dataSources) {
+        // Пул может быть обернут (ConnectionPermitDataSource, прокси реплик)
+        return new WarmUpRunner(properties, environment, dataSources.orderedStream()
+                .map(dataSource -> DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+    }
+}
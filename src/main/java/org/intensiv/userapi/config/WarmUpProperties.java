@@ -0,0 +1,13 @@
+package org.intensiv.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "userapi.warm-up")
+public record WarmUpProperties(@DefaultValue("true") boolean enabled,
+                               @DefaultValue("200") int iterations,
+                               @DefaultValue("4") int concurrency,
+                               @DefaultValue("60s") Duration timeout) {
+}
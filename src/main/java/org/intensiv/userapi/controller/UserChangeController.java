@@ -0,0 +1,34 @@
+package org.intensiv.userapi.controller;
+
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.intensiv.userapi.dto.response.UserChangePageResponseDto;
+import org.intensiv.userapi.service.UserChangeFeedService;
+import org.intensiv.userapi.service.UserChangeStream;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RequiredArgsConstructor
+@Validated
+@RestController
+@RequestMapping(path = "/userapi/users/changes")
+public class UserChangeController {
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final UserChangeFeedService userChangeFeedService;
+    private final UserChangeStream userChangeStream;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public UserChangePageResponseDto getChanges(@RequestParam(required = false) String since,
+                                                @RequestParam(required = false) @Min(1) Integer limit) {
+        return userChangeFeedService.getChanges(since, limit);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) String since,
+                                    @RequestHeader(name = LAST_EVENT_ID, required = false) String lastEventId) {
+        return userChangeStream.subscribe(lastEventId != null ? lastEventId : since);
+    }
+}
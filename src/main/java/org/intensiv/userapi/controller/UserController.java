@@ -1,45 +1,121 @@
 package org.intensiv.userapi.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import org.intensiv.userapi.dto.request.CreateUserRequestDto;
 import org.intensiv.userapi.dto.request.UpdateUserRequestDto;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.request.UserLookupRequestDto;
+import org.intensiv.userapi.dto.response.BatchCreateItemResultDto;
+import org.intensiv.userapi.dto.response.ImportResultDto;
+import org.intensiv.userapi.dto.response.UserLookupResponseDto;
+import org.intensiv.userapi.dto.response.UserPageResponseDto;
 import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.exception.PreconditionFailedException;
+import org.intensiv.userapi.service.ImportFormat;
+import org.intensiv.userapi.service.UserImportService;
 import org.intensiv.userapi.service.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
+import java.time.ZoneOffset;
 import java.util.List;
 
+import static org.intensiv.userapi.config.ContentFormatConfig.APPLICATION_SMILE_VALUE;
+
 @RequiredArgsConstructor
 @Validated
 @RestController
-@RequestMapping(path = "/userapi/users", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/userapi/users", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        APPLICATION_SMILE_VALUE})
 public class UserController {
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final String SORT_PATTERN = "-?(id|name|age|created_at)";
+
     private final UserService userService;
+    private final UserImportService userImportService;
 
-    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     public UserResponseDto createUser(@RequestBody @Valid CreateUserRequestDto dto) {
         return userService.createUser(dto);
     }
 
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public List<BatchCreateItemResultDto> createUsers(@RequestBody @NotEmpty
+                                                      List<@Valid CreateUserRequestDto> dtos) {
+        return userService.createUsers(dtos);
+    }
+
+    @PostMapping(path = "/import", consumes = TEXT_CSV_VALUE)
+    public ImportResultDto importUsersFromCsv(InputStream body) {
+        return userImportService.importUsers(body, ImportFormat.CSV);
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportResultDto importUsersFromNdjson(InputStream body) {
+        return userImportService.importUsers(body, ImportFormat.NDJSON);
+    }
+
+    // Версия для If-None-Match берется из закэшированного getUser: отдельный запрос версии прошел бы мимо кэша
     @GetMapping("/{id}")
-    public UserResponseDto getUser(@PathVariable @NotNull @Min(1) Long id) {
-        return userService.getUser(id);
+    public ResponseEntity<UserResponseDto> getUser(@PathVariable @NotNull @Min(1) Long id,
+                                                   @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                                   WebRequest request, HttpServletResponse response) {
+        UserResponseDto user = userService.getUser(id);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (user.version() != null && request.checkNotModified(UserETags.of(user.version(), accepted(accept)))) {
+            return null;
+        }
+        return withValidators(user, accept);
+    }
+
+    @GetMapping("/by-email")
+    public ResponseEntity<UserResponseDto> getUserByEmail(@RequestParam @NotBlank @Email String email,
+                                                          @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        return withValidators(userService.getUserByEmail(email), accept);
     }
 
     @GetMapping
-    public List<UserResponseDto> getAllUsers() {
-        return userService.getAllUsers();
+    public UserPageResponseDto getUsers(@Valid UserFilterRequestDto filter,
+                                        @RequestParam(required = false) @Pattern(regexp = SORT_PATTERN) String sort,
+                                        @RequestParam(required = false) String after,
+                                        @RequestParam(required = false) @Min(1) Integer limit) {
+        return userService.getUsers(filter, sort, after, limit);
     }
 
-    @PatchMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public UserResponseDto updateUser(@PathVariable @NotNull @Min(1) Long id, @RequestBody @Valid UpdateUserRequestDto dto) {
-        return userService.updateUser(id, dto);
+    @GetMapping(params = "ids")
+    public UserLookupResponseDto getUsersByIds(@RequestParam @NotEmpty List<@NotNull @Min(1) Long> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
+    @PostMapping(path = "/lookup", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public UserLookupResponseDto lookupUsers(@RequestBody @Valid UserLookupRequestDto dto) {
+        return userService.getUsersByIds(dto.ids());
+    }
+
+    @PatchMapping(path = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<UserResponseDto> updateUser(@PathVariable @NotNull @Min(1) Long id,
+                                                      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                                      @RequestBody @Valid UpdateUserRequestDto dto) {
+        return withValidators(userService.updateUser(id, dto, expectedVersion(id, ifMatch)), accept);
     }
 
     @DeleteMapping("/{id}")
@@ -47,4 +123,32 @@ public class UserController {
     public void delete(@PathVariable @NotNull @Min(1) Long id) {
         userService.deleteUser(id);
     }
+
+    private static ResponseEntity<UserResponseDto> withValidators(UserResponseDto user, String accept) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (user.version() != null) {
+            response.eTag(UserETags.of(user.version(), accepted(accept)));
+        }
+        if (user.updatedAt() != null) {
+            response.lastModified(user.updatedAt().toInstant(ZoneOffset.UTC));
+        }
+        return response.body(user);
+    }
+
+    private static List<MediaType> accepted(String accept) {
+        return MediaType.parseMediaTypes(accept);
+    }
+
+    private static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        Long version = UserETags.version(tag);
+        // слабый или непохожий на версию ETag не может совпасть ни с одной версией
+        if (version == null) {
+            throw new PreconditionFailedException("Версия пользователя id:" + id + " не совпадает с " + tag);
+        }
+        return version;
+    }
 }
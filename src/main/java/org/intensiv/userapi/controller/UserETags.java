@@ -0,0 +1,70 @@
+package org.intensiv.userapi.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// JSON, CBOR и Smile одной версии — разные байты, поэтому сильный ETag у них свой: "<version>" у JSON,
+// "<version>-cbor" и "<version>-smile" у бинарных форматов. Ответ с таким ETag выставляет Vary: Accept.
+// Без MVC-зависимостей: класс компилируется и в userapi-reactive.
+public final class UserETags {
+    private static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final List<MediaType> REPRESENTATIONS =
+            List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+    private static final String CBOR_SUFFIX = "-cbor";
+    private static final String SMILE_SUFFIX = "-smile";
+
+    private UserETags() {
+    }
+
+    public static String of(long version, List<MediaType> accepted) {
+        return "\"" + version + suffix(representation(accepted)) + "\"";
+    }
+
+    // Версия из If-Match: подходит сильный ETag любого представления, иначе null
+    public static Long version(String eTag) {
+        if (eTag.length() <= 2 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            return null;
+        }
+        String value = eTag.substring(1, eTag.length() - 1);
+        if (value.endsWith(CBOR_SUFFIX)) {
+            value = value.substring(0, value.length() - CBOR_SUFFIX.length());
+        } else if (value.endsWith(SMILE_SUFFIX)) {
+            value = value.substring(0, value.length() - SMILE_SUFFIX.length());
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Тот же выбор, что при согласовании в Spring: типы из produces, совместимые с Accept,
+    // по специфичности и q; без Accept — JSON
+    static MediaType representation(List<MediaType> accepted) {
+        List<MediaType> acceptable = new ArrayList<>(accepted.isEmpty() ? List.of(MediaType.ALL) : accepted);
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType acceptedType : acceptable) {
+            for (MediaType representation : REPRESENTATIONS) {
+                if (acceptedType.isCompatibleWith(representation)) {
+                    compatible.add(representation.copyQualityValue(acceptedType));
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatible);
+        return compatible.isEmpty() ? MediaType.APPLICATION_JSON : compatible.get(0);
+    }
+
+    private static String suffix(MediaType representation) {
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(representation)) {
+            return CBOR_SUFFIX;
+        }
+        if (APPLICATION_SMILE.equalsTypeAndSubtype(representation)) {
+            return SMILE_SUFFIX;
+        }
+        return "";
+    }
+}
@@ -0,0 +1,48 @@
+package org.intensiv.userapi.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.intensiv.userapi.service.ExportFormat;
+import org.intensiv.userapi.service.UserExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Ответ пишется прямо в поток сервлета в потоке запроса: без async-таймаута Spring MVC,
+// а соединение с базой (и разрешение ConnectionPermitDataSource) держится до конца выгрузки
+@RequiredArgsConstructor
+@Validated
+@RestController
+@RequestMapping(path = "/userapi/users/export")
+public class UserExportController {
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final String FORMAT_PATTERN = "ndjson|csv";
+
+    private final UserExportService userExportService;
+
+    @GetMapping
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") @Pattern(regexp = FORMAT_PATTERN) String format,
+                            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        try (UserExportService.ExportPermit permit = userExportService.acquirePermit()) {
+            response.setContentType(switch (exportFormat) {
+                case CSV -> TEXT_CSV_VALUE;
+                case NDJSON -> MediaType.APPLICATION_NDJSON_VALUE;
+            });
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename("users." + format).build().toString());
+            userExportService.exportUsers(response.getOutputStream(), exportFormat);
+        }
+    }
+}
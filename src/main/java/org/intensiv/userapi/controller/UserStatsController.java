@@ -0,0 +1,22 @@
+package org.intensiv.userapi.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.intensiv.userapi.dto.response.UserStatsResponseDto;
+import org.intensiv.userapi.service.UserStatsService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(path = "/userapi/users/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+public class UserStatsController {
+    private final UserStatsService userStatsService;
+
+    @GetMapping
+    public UserStatsResponseDto getStats(@RequestParam(defaultValue = "false") boolean approximate) {
+        return userStatsService.getStats(approximate);
+    }
+}
@@ -0,0 +1,69 @@
+package org.intensiv.userapi.datasource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// LSN берется на соединении самой пишущей транзакции сразу после ее COMMIT: позиция вставки WAL уже
+// не меньше конца записи о коммите, поэтому реплика, применившая этот LSN, видит изменение.
+// Запрос выполняется только когда запрос ждет LSN (ReadConsistencyContext) и транзакция не read-only.
+public class CommitLsnDataSource extends DelegatingDataSource {
+    private static final String CURRENT_LSN_QUERY = "SELECT pg_current_wal_insert_lsn()::text";
+
+    public CommitLsnDataSource(DataSource primary) {
+        super(primary);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection proxy(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getTargetConnection" -> target;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "commit" -> {
+                        target.commit();
+                        if (ReadConsistencyContext.tracksWrites() && !target.isReadOnly()) {
+                            ReadConsistencyContext.writeCommitted(currentLsn(target));
+                        }
+                        yield null;
+                    }
+                    default -> {
+                        try {
+                            yield method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+
+    // Соединение еще не вернулось в пул и в режиме транзакции: запрос открывает новую, ее сразу закрываем
+    private static long currentLsn(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(CURRENT_LSN_QUERY)) {
+            resultSet.next();
+            long lsn = Lsn.parse(resultSet.getString(1));
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            return lsn;
+        }
+    }
+}
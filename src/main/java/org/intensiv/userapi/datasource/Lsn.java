@@ -0,0 +1,20 @@
+package org.intensiv.userapi.datasource;
+
+public final class Lsn {
+    private Lsn() {
+    }
+
+    public static long parse(String lsn) {
+        int separator = lsn.indexOf('/');
+        if (separator <= 0 || separator == lsn.length() - 1) {
+            throw new IllegalArgumentException("Некорректный LSN: " + lsn);
+        }
+        long high = Long.parseLong(lsn.substring(0, separator), 16);
+        long low = Long.parseLong(lsn.substring(separator + 1), 16);
+        return (high << 32) | low;
+    }
+
+    public static String format(long lsn) {
+        return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+    }
+}
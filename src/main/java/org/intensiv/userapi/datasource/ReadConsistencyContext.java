@@ -0,0 +1,44 @@
+package org.intensiv.userapi.datasource;
+
+import java.util.function.LongConsumer;
+
+public final class ReadConsistencyContext {
+    private static final ThreadLocal<Long> REQUIRED_LSN = new ThreadLocal<>();
+    private static final ThreadLocal<LongConsumer> WRITE_LISTENER = new ThreadLocal<>();
+
+    private ReadConsistencyContext() {
+    }
+
+    public static void requireLsn(long lsn) {
+        REQUIRED_LSN.set(lsn);
+    }
+
+    public static long requiredLsn() {
+        Long lsn = REQUIRED_LSN.get();
+        return lsn == null ? 0L : lsn;
+    }
+
+    public static boolean hasRequiredLsn() {
+        return REQUIRED_LSN.get() != null;
+    }
+
+    public static void onWriteCommitted(LongConsumer listener) {
+        WRITE_LISTENER.set(listener);
+    }
+
+    public static boolean tracksWrites() {
+        return WRITE_LISTENER.get() != null;
+    }
+
+    public static void writeCommitted(long lsn) {
+        LongConsumer listener = WRITE_LISTENER.get();
+        if (listener != null) {
+            listener.accept(lsn);
+        }
+    }
+
+    public static void clear() {
+        REQUIRED_LSN.remove();
+        WRITE_LISTENER.remove();
+    }
+}
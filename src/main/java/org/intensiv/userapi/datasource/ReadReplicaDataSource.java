@@ -0,0 +1,45 @@
+package org.intensiv.userapi.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReadReplicaDataSource extends AbstractDataSource {
+    private final DataSource primary;
+    private final List<ReplicaNode> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadReplicaDataSource(DataSource primary, List<ReplicaNode> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long requiredLsn = ReadConsistencyContext.requiredLsn();
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaNode replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.canServe(maxLagMillis, requiredLsn)) {
+                try {
+                    return replica.getConnection();
+                } catch (SQLException e) {
+                    // реплика помечена недоступной, пробуем следующую
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+}
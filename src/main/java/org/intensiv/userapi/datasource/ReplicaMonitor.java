@@ -0,0 +1,38 @@
+package org.intensiv.userapi.datasource;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ReplicaMonitor implements AutoCloseable {
+    @Getter
+    private final List<ReplicaNode> replicas;
+    private final ScheduledExecutorService executor;
+
+    public ReplicaMonitor(List<ReplicaNode> replicas, Duration checkInterval) {
+        this.replicas = List.copyOf(replicas);
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("replica-monitor")
+                .daemon(true)
+                .factory());
+        replicas.forEach(ReplicaNode::refresh);
+        executor.scheduleWithFixedDelay(this::refreshAll, checkInterval.toMillis(), checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshAll() {
+        replicas.forEach(ReplicaNode::refresh);
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.shutdownNow();
+        for (ReplicaNode replica : replicas) {
+            replica.close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.intensiv.userapi.datasource;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Slf4j
+public class ReplicaNode implements AutoCloseable {
+    private static final String STATUS_QUERY = """
+            SELECT pg_is_in_recovery(),
+                   CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END,
+                   pg_last_wal_replay_lsn()::text""";
+
+    @Getter
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean available;
+    private volatile long lagMillis;
+    private volatile long replayLsn;
+
+    public ReplicaNode(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public void refresh() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(STATUS_QUERY)) {
+            resultSet.next();
+            boolean inRecovery = resultSet.getBoolean(1);
+            lagMillis = inRecovery ? (long) resultSet.getDouble(2) : 0L;
+            replayLsn = inRecovery ? Lsn.parse(resultSet.getString(3)) : Long.MAX_VALUE;
+            if (!available) {
+                log.info("Реплика {} доступна, отставание {} мс", name, lagMillis);
+            }
+            available = true;
+        } catch (SQLException | RuntimeException e) {
+            markUnavailable(e);
+        }
+    }
+
+    public boolean canServe(long maxLagMillis, long requiredLsn) {
+        return available && lagMillis <= maxLagMillis && replayLsn >= requiredLsn;
+    }
+
+    public Connection getConnection() throws SQLException {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            markUnavailable(e);
+            throw e;
+        }
+    }
+
+    void markUnavailable(Exception cause) {
+        if (available) {
+            log.warn("Реплика {} недоступна, чтение переключено на основную базу: {}", name, cause.getMessage());
+        }
+        available = false;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -3,9 +3,15 @@ package org.intensiv.userapi.dto.request;
 import jakarta.validation.constraints.*;
 
 public record CreateUserRequestDto(@NotNull
-                                   @Size(min = 1, message = "Имя не может быть меньше 1 символа") String name,
+                                   @Size(min = 1, message = "Имя не может быть меньше 1 символа")
+                                   @Size(max = 255, message = "Имя не может быть длиннее 255 символов") String name,
                                    @NotNull(message = "Email не может быть null")
+                                   @Size(max = 255, message = "Email не может быть длиннее 255 символов")
                                    @Email(message = "Некорректный email адрес") String email,
                                    @NotNull
                                    @Min(0) @Max(150) Integer age)
-{}
+{
+    public CreateUserRequestDto {
+        email = Emails.normalize(email);
+    }
+}
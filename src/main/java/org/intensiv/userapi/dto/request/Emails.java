@@ -0,0 +1,13 @@
+package org.intensiv.userapi.dto.request;
+
+import java.util.Locale;
+
+// Email хранится и ищется в нижнем регистре: уникальность обеспечивает индекс по lower(email)
+public final class Emails {
+    private Emails() {
+    }
+
+    public static String normalize(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+}
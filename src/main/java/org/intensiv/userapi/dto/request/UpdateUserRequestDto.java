@@ -5,7 +5,13 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 
-public record UpdateUserRequestDto(@Size(message = "Имя должно содержать как минимум 1 символ", min = 1) String name,
+public record UpdateUserRequestDto(@Size(message = "Имя должно содержать как минимум 1 символ", min = 1)
+                                   @Size(max = 255, message = "Имя не может быть длиннее 255 символов") String name,
+                                   @Size(max = 255, message = "Email не может быть длиннее 255 символов")
                                    @Email(message = "Email должет быть корректным") String email,
                                    @Min(0) @Max(150) Integer age)
-{}
+{
+    public UpdateUserRequestDto {
+        email = Emails.normalize(email);
+    }
+}
@@ -0,0 +1,21 @@
+package org.intensiv.userapi.dto.request;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public record UserFilterRequestDto(@Min(0) @Max(150) Integer minAge,
+                                   @Min(0) @Max(150) Integer maxAge,
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+                                   @Email(message = "Некорректный email адрес") String email)
+{
+    public static final UserFilterRequestDto NONE = new UserFilterRequestDto(null, null, null, null, null);
+
+    public UserFilterRequestDto {
+        email = Emails.normalize(email);
+    }
+}
@@ -0,0 +1,11 @@
+package org.intensiv.userapi.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record UserLookupRequestDto(@NotEmpty(message = "Список id не может быть пустым")
+                                   List<@NotNull @Min(1) Long> ids)
+{}
@@ -0,0 +1,4 @@
+package org.intensiv.userapi.dto.response;
+
+public record AgeBucketDto(int fromAge, int toAge, long users) {
+}
@@ -0,0 +1,11 @@
+package org.intensiv.userapi.dto.response;
+
+public record BatchCreateItemResultDto(int index, BatchItemStatus status, UserResponseDto user, String message) {
+    public static BatchCreateItemResultDto created(int index, UserResponseDto user) {
+        return new BatchCreateItemResultDto(index, BatchItemStatus.CREATED, user, null);
+    }
+
+    public static BatchCreateItemResultDto conflict(int index, String message) {
+        return new BatchCreateItemResultDto(index, BatchItemStatus.CONFLICT, null, message);
+    }
+}
@@ -0,0 +1,6 @@
+package org.intensiv.userapi.dto.response;
+
+public enum BatchItemStatus {
+    CREATED,
+    CONFLICT
+}
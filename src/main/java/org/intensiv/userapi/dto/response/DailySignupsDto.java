@@ -0,0 +1,6 @@
+package org.intensiv.userapi.dto.response;
+
+import java.time.LocalDate;
+
+public record DailySignupsDto(LocalDate day, long users) {
+}
@@ -0,0 +1,4 @@
+package org.intensiv.userapi.dto.response;
+
+public record ImportResultDto(long imported, long rejected, long duplicates) {
+}
@@ -0,0 +1,15 @@
+package org.intensiv.userapi.dto.response;
+
+import org.intensiv.userapi.entity.UserChangeType;
+
+import java.time.LocalDateTime;
+
+public record UserChangeDto(String cursor,
+                            Long userId,
+                            UserChangeType type,
+                            String name,
+                            String email,
+                            Integer age,
+                            Long version,
+                            LocalDateTime occurredAt) {
+}
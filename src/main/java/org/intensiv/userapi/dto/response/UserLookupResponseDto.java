@@ -0,0 +1,6 @@
+package org.intensiv.userapi.dto.response;
+
+import java.util.List;
+
+public record UserLookupResponseDto(List<UserResponseDto> items, List<Long> missingIds) {
+}
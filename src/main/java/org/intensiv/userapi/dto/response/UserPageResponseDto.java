@@ -0,0 +1,6 @@
+package org.intensiv.userapi.dto.response;
+
+import java.util.List;
+
+public record UserPageResponseDto(List<UserResponseDto> items, String nextCursor) {
+}
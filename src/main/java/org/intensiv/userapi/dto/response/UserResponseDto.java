@@ -1,4 +1,15 @@
 package org.intensiv.userapi.dto.response;
 
-public record UserResponseDto(Long id, String name, String email) {
-}
\ No newline at end of file
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+public record UserResponseDto(Long id,
+                              String name,
+                              String email,
+                              @JsonIgnore Long version,
+                              @JsonIgnore LocalDateTime updatedAt) {
+    public UserResponseDto(Long id, String name, String email) {
+        this(id, name, email, null, null);
+    }
+}
@@ -0,0 +1,13 @@
+package org.intensiv.userapi.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record UserStatsResponseDto(long count,
+                                   @JsonInclude(JsonInclude.Include.NON_NULL) Long approximateCount,
+                                   List<AgeBucketDto> ageHistogram,
+                                   List<DailySignupsDto> dailySignups,
+                                   LocalDateTime reconciledAt) {
+}
@@ -6,15 +6,22 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 @Entity
 @Table(name = "users")
+@SqlResultSetMapping(name = User.WITH_PREVIOUS_AGE_MAPPING,
+        entities = @EntityResult(entityClass = User.class),
+        columns = @ColumnResult(name = "previous_age", type = Integer.class))
 @NoArgsConstructor
 @Getter
 @Setter
 public class User {
+    public static final String WITH_PREVIOUS_AGE_MAPPING = "UserWithPreviousAge";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
 
     @Basic(optional = false)
@@ -31,6 +38,12 @@ public class User {
     @Column(updatable = false)
     private LocalDateTime created_at;
 
+    @Basic(optional = false)
+    private LocalDateTime updated_at;
+
+    @Version
+    private Long version;
+
     public User(String name, String email, Integer age) {
         this.name = name;
         this.email = email;
@@ -39,6 +52,12 @@ public class User {
 
     @PrePersist
     private void onCreate() {
-        created_at = LocalDateTime.now();
+        created_at = LocalDateTime.now(ZoneOffset.UTC);
+        updated_at = created_at;
+    }
+
+    @PreUpdate
+    private void onUpdate() {
+        updated_at = LocalDateTime.now(ZoneOffset.UTC);
     }
 }
@@ -0,0 +1,7 @@
+package org.intensiv.userapi.entity;
+
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,58 @@
+package org.intensiv.userapi.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_outbox")
+@NoArgsConstructor
+@Getter
+public class UserOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_outbox_id_seq")
+    @SequenceGenerator(name = "user_outbox_id_seq", sequenceName = "user_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    // Заполняется базой: pg_current_xact_id() транзакции, в которой записано событие
+    @Column(insertable = false, updatable = false)
+    private Long txid;
+
+    @Basic(optional = false)
+    private Long user_id;
+
+    @Basic(optional = false)
+    @Enumerated(EnumType.STRING)
+    private UserChangeType event_type;
+
+    private String name;
+
+    private String email;
+
+    private Integer age;
+
+    private Long version;
+
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime created_at;
+
+    private UserOutboxEvent(Long userId, UserChangeType eventType) {
+        this.user_id = userId;
+        this.event_type = eventType;
+    }
+
+    public static UserOutboxEvent of(UserChangeType eventType, User user) {
+        UserOutboxEvent event = new UserOutboxEvent(user.getId(), eventType);
+        event.name = user.getName();
+        event.email = user.getEmail();
+        event.age = user.getAge();
+        event.version = user.getVersion();
+        return event;
+    }
+
+    public static UserOutboxEvent deleted(Long userId) {
+        return new UserOutboxEvent(userId, UserChangeType.DELETED);
+    }
+}
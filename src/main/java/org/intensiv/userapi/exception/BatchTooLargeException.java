@@ -0,0 +1,7 @@
+package org.intensiv.userapi.exception;
+
+public class BatchTooLargeException extends UserApiException {
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,20 @@
 package org.intensiv.userapi.exception;
 
-public class DuplicateEmailException extends RuntimeException {
+public class DuplicateEmailException extends UserApiException {
+    public static final String EMAIL_UNIQUE_INDEX = "uq_users_email_lower";
+
     public DuplicateEmailException(String message) {
         super(message);
     }
+
+    // Нарушение именно уникального индекса email; остальные ошибки целостности (слишком длинное значение,
+    // другие ограничения) дубликатом email не являются
+    public static boolean isCausedByDuplicateEmail(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(EMAIL_UNIQUE_INDEX)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,7 @@
+package org.intensiv.userapi.exception;
+
+public class ExportLimitExceededException extends UserApiException {
+    public ExportLimitExceededException(String message) {
+        super(message);
+    }
+}
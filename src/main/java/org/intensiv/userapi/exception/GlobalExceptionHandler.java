@@ -1,8 +1,15 @@
 package org.intensiv.userapi.exception;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -12,39 +19,110 @@ import java.util.Map;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
+    private static final String USER_NOT_FOUND = "User not found";
+    private static final String EMAIL_ALREADY_EXISTS = "Email already exists";
+    private static final String VALIDATION_FAILED = "Validation failed";
+    private static final String INVALID_CURSOR = "Invalid cursor";
+    private static final String TOO_MANY_IDS = "Too many ids";
+    private static final String BATCH_TOO_LARGE = "Batch too large";
+    private static final String PRECONDITION_FAILED = "Precondition failed";
+    private static final String PRECONDITION_FAILED_DETAIL = "Пользователь был изменен другим запросом";
+    private static final String DATA_INTEGRITY_VIOLATION = "Data integrity violation";
+    private static final String DATA_INTEGRITY_VIOLATION_DETAIL = "Данные конфликтуют с уже существующими записями";
+    private static final String EXPORT_LIMIT_EXCEEDED = "Export limit exceeded";
+    private static final String EXPORT_RETRY_AFTER_SECONDS = "60";
+    private static final String DATABASE_UNAVAILABLE = "Database unavailable";
+    private static final String DATABASE_UNAVAILABLE_DETAIL = "Нет свободных соединений с базой, повторите запрос позже";
+    private static final String DATABASE_RETRY_AFTER_SECONDS = "1";
+
     @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<Map<String, String>> handleUserNotFoundException(UserNotFoundException ex) {
-        Map<String, String> body = Map.of(
-                "error", "User not found",
-                "message", ex.getMessage()
-        );
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    public ResponseEntity<ProblemDetail> handleUserNotFoundException(UserNotFoundException ex) {
+        return problem(HttpStatus.NOT_FOUND, USER_NOT_FOUND, ex.getMessage());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, String>> handleValidationException(MethodArgumentNotValidException ex) {
+    public ResponseEntity<ProblemDetail> handleValidationException(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getFieldErrors().forEach(error ->
                 errors.put(error.getField(), error.getDefaultMessage())
         );
-        return ResponseEntity.badRequest().body(errors);
+        return validationProblem(errors);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
-    public ResponseEntity<Map<String, String>> handleConstraintViolationException(ConstraintViolationException ex) {
+    public ResponseEntity<ProblemDetail> handleConstraintViolationException(ConstraintViolationException ex) {
         Map<String, String> errors = new HashMap<>();
         ex.getConstraintViolations().forEach(violation ->
                 errors.put(violation.getPropertyPath().toString(), violation.getMessage())
         );
-        return ResponseEntity.badRequest().body(errors);
+        return validationProblem(errors);
     }
 
     @ExceptionHandler(DuplicateEmailException.class)
-    public ResponseEntity<Map<String, String>> handleDuplicateEmailException(DuplicateEmailException ex) {
-        Map<String, String> body = Map.of(
-                "error", "Email already exists",
-                "message", ex.getMessage()
-        );
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    public ResponseEntity<ProblemDetail> handleDuplicateEmailException(DuplicateEmailException ex) {
+        return problem(HttpStatus.CONFLICT, EMAIL_ALREADY_EXISTS, ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidCursorException(InvalidCursorException ex) {
+        return problem(HttpStatus.BAD_REQUEST, INVALID_CURSOR, ex.getMessage());
+    }
+
+    @ExceptionHandler(TooManyIdsException.class)
+    public ResponseEntity<ProblemDetail> handleTooManyIdsException(TooManyIdsException ex) {
+        return problem(HttpStatus.BAD_REQUEST, TOO_MANY_IDS, ex.getMessage());
+    }
+
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<ProblemDetail> handleBatchTooLargeException(BatchTooLargeException ex) {
+        return problem(HttpStatus.BAD_REQUEST, BATCH_TOO_LARGE, ex.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ProblemDetail> handlePreconditionFailedException(PreconditionFailedException ex) {
+        return problem(HttpStatus.PRECONDITION_FAILED, PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return problem(HttpStatus.PRECONDITION_FAILED, PRECONDITION_FAILED, PRECONDITION_FAILED_DETAIL);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ProblemDetail> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        return problem(HttpStatus.CONFLICT, DATA_INTEGRITY_VIOLATION, DATA_INTEGRITY_VIOLATION_DETAIL);
+    }
+
+    @ExceptionHandler(ExportLimitExceededException.class)
+    public ResponseEntity<ProblemDetail> handleExportLimitExceededException(ExportLimitExceededException ex) {
+        ProblemDetail body = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        body.setTitle(EXPORT_LIMIT_EXCEEDED);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, EXPORT_RETRY_AFTER_SECONDS)
+                .body(body);
+    }
+
+    // Сюда приходят таймаут ConnectionPermitDataSource и недоступность пула Hikari
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class,
+            TransientDataAccessResourceException.class})
+    public ResponseEntity<ProblemDetail> handleDatabaseUnavailableException(Exception ex) {
+        ProblemDetail body = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, DATABASE_UNAVAILABLE_DETAIL);
+        body.setTitle(DATABASE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, DATABASE_RETRY_AFTER_SECONDS)
+                .body(body);
+    }
+
+    private static ResponseEntity<ProblemDetail> validationProblem(Map<String, String> errors) {
+        ProblemDetail body = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        body.setTitle(VALIDATION_FAILED);
+        body.setProperty("errors", errors);
+        return ResponseEntity.badRequest().body(body);
+    }
+
+    private static ResponseEntity<ProblemDetail> problem(HttpStatus status, String title, String detail) {
+        ProblemDetail body = ProblemDetail.forStatusAndDetail(status, detail);
+        body.setTitle(title);
+        return ResponseEntity.status(status).body(body);
     }
 }
@@ -0,0 +1,7 @@
+package org.intensiv.userapi.exception;
+
+public class InvalidCursorException extends UserApiException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.intensiv.userapi.exception;
+
+public class PreconditionFailedException extends UserApiException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.intensiv.userapi.exception;
+
+public class TooManyIdsException extends UserApiException {
+    public TooManyIdsException(String message) {
+        super(message);
+    }
+}
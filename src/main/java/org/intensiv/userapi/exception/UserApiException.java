@@ -0,0 +1,14 @@
+package org.intensiv.userapi.exception;
+
+public abstract class UserApiException extends RuntimeException {
+    // userapi.exceptions.stack-traces, выставляется при старте контекста
+    private static volatile boolean stackTraces = true;
+
+    protected UserApiException(String message) {
+        super(message, null, false, stackTraces);
+    }
+
+    public static void setStackTraces(boolean enabled) {
+        stackTraces = enabled;
+    }
+}
@@ -1,7 +1,21 @@
 package org.intensiv.userapi.exception;
 
-public class UserNotFoundException extends RuntimeException {
+public class UserNotFoundException extends UserApiException {
+    private final Long id;
+
     public UserNotFoundException(String message) {
         super(message);
+        this.id = null;
+    }
+
+    public UserNotFoundException(Long id) {
+        super(null);
+        this.id = id;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        return message != null ? message : "User c id:" + id + " не найден";
     }
 }
@@ -0,0 +1,65 @@
+package org.intensiv.userapi.filter;
+
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+// Адреса и подсети в записи CIDR (10.0.0.0/8, ::1). Проверяются только IP-литералы, без DNS
+public final class AddressMatcher {
+    private final List<Subnet> subnets;
+
+    private AddressMatcher(List<Subnet> subnets) {
+        this.subnets = subnets;
+    }
+
+    public static AddressMatcher of(List<String> addresses) {
+        return new AddressMatcher(addresses.stream().map(AddressMatcher::parse).toList());
+    }
+
+    public boolean matches(String address) {
+        if (address == null || subnets.isEmpty() || !isLiteral(address)) {
+            return false;
+        }
+        byte[] bytes;
+        try {
+            bytes = InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+        return subnets.stream().anyMatch(subnet -> subnet.contains(bytes));
+    }
+
+    private static Subnet parse(String value) {
+        int slash = value.indexOf('/');
+        String address = slash < 0 ? value : value.substring(0, slash);
+        if (!isLiteral(address)) {
+            throw new IllegalArgumentException("Ожидается IP-адрес или подсеть: " + value);
+        }
+        try {
+            byte[] bytes = InetAddress.getByName(address).getAddress();
+            int prefix = slash < 0 ? bytes.length * 8 : Integer.parseInt(value.substring(slash + 1));
+            if (prefix < 0 || prefix > bytes.length * 8) {
+                throw new IllegalArgumentException("Некорректная длина префикса: " + value);
+            }
+            return new Subnet(bytes, prefix);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Ожидается IP-адрес или подсеть: " + value, e);
+        }
+    }
+
+    private static boolean isLiteral(String address) {
+        return !address.isEmpty() && (address.indexOf(':') >= 0 || address.chars()
+                .allMatch(c -> c == '.' || Character.isDigit(c)));
+    }
+
+    private record Subnet(byte[] address, int prefix) {
+        boolean contains(byte[] candidate) {
+            if (candidate.length != address.length) {
+                return false;
+            }
+            int shift = address.length * 8 - prefix;
+            return new BigInteger(1, candidate).shiftRight(shift).equals(new BigInteger(1, address).shiftRight(shift));
+        }
+    }
+}
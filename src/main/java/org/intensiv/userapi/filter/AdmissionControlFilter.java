@@ -0,0 +1,157 @@
+package org.intensiv.userapi.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.intensiv.userapi.admission.AdaptiveConcurrencyLimiter;
+import org.intensiv.userapi.admission.Bulkhead;
+import org.intensiv.userapi.admission.TokenBucket;
+import org.intensiv.userapi.config.AdmissionControlProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final String STREAM_PATH_SUFFIX = "/changes/stream";
+    private static final String EXPORT_PATH_SUFFIX = "/users/export";
+    private static final String REQUESTS_METER = "userapi.admission.requests";
+    private static final int MAX_CLIENT_ID_LENGTH = 128;
+    private static final String RATE_LIMITED = "Too many requests";
+    private static final String RATE_LIMITED_DETAIL = "Превышен лимит запросов клиента";
+    private static final String OVERLOADED = "Service overloaded";
+    private static final String OVERLOADED_DETAIL = "Сервис перегружен, повторите запрос позже";
+
+    private final AdmissionControlProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AddressMatcher trustedProxies;
+    private final Map<Bulkhead, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(Bulkhead.class);
+    private final Map<Bulkhead, Counter> accepted = new EnumMap<>(Bulkhead.class);
+    private final Map<Bulkhead, Counter> rejected = new EnumMap<>(Bulkhead.class);
+    private final Map<Bulkhead, Counter> rateLimited = new EnumMap<>(Bulkhead.class);
+    private final Cache<String, TokenBucket> clientBuckets;
+
+    public AdmissionControlFilter(AdmissionControlProperties properties, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.trustedProxies = AddressMatcher.of(properties.trustedProxies());
+        this.clientBuckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxTrackedClients())
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .build();
+        for (Bulkhead bulkhead : Bulkhead.values()) {
+            int maxLimit = maxLimit(bulkhead);
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(maxLimit / 2, properties.minLimit(), maxLimit);
+            limiters.put(bulkhead, limiter);
+            accepted.put(bulkhead, requestCounter(meterRegistry, bulkhead, "accepted"));
+            rejected.put(bulkhead, requestCounter(meterRegistry, bulkhead, "rejected"));
+            rateLimited.put(bulkhead, requestCounter(meterRegistry, bulkhead, "rate_limited"));
+            Gauge.builder("userapi.admission.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("Current adaptive concurrency limit of the bulkhead")
+                    .tag("bulkhead", bulkhead.tag())
+                    .register(meterRegistry);
+            Gauge.builder("userapi.admission.in_flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .description("Requests currently admitted to the bulkhead")
+                    .tag("bulkhead", bulkhead.tag())
+                    .register(meterRegistry);
+        }
+    }
+
+    // SSE-подписка держит соединение минутами и не занимает соединение с базой — в лимиты не входит.
+    // Выгрузка идет минутами, и ее задержка исказила бы longRtt сканов; ее ограничивает UserExportService.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.endsWith(STREAM_PATH_SUFFIX) || uri.endsWith(EXPORT_PATH_SUFFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Bulkhead bulkhead = Bulkhead.of(request);
+        long retryAfterNanos = consumeClientToken(request);
+        if (retryAfterNanos > 0) {
+            rateLimited.get(bulkhead).increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED, RATE_LIMITED_DETAIL, retryAfterNanos);
+            return;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.get(bulkhead);
+        if (!limiter.tryAcquire()) {
+            rejected.get(bulkhead).increment();
+            log.debug("Запрос {} {} отклонен: bulkhead={} limit={}", request.getMethod(), request.getRequestURI(),
+                    bulkhead, limiter.limit());
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED, OVERLOADED_DETAIL,
+                    properties.retryAfter().toNanos());
+            return;
+        }
+        accepted.get(bulkhead).increment();
+        long startedAt = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limiter.release(System.nanoTime() - startedAt, dropped);
+        }
+    }
+
+    private long consumeClientToken(HttpServletRequest request) {
+        if (properties.clientRatePerSecond() <= 0) {
+            return 0;
+        }
+        String clientId = clientId(request);
+        long now = System.nanoTime();
+        return clientBuckets.get(clientId, key -> new TokenBucket(properties.clientRatePerSecond(),
+                        properties.clientBurst(), now))
+                .tryConsume(now);
+    }
+
+    // Заголовок выбирает сам клиент, поэтому ему верим только от доверенного прокси, который его выставляет;
+    // иначе смена заголовка обходила бы лимит, а поток новых ключей вытеснял бы корзины других клиентов
+    private String clientId(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!trustedProxies.matches(remoteAddr)) {
+            return remoteAddr;
+        }
+        String clientId = request.getHeader(properties.clientIdHeader());
+        return clientId == null || clientId.isBlank() || clientId.length() > MAX_CLIENT_ID_LENGTH
+                ? remoteAddr
+                : clientId;
+    }
+
+    private int maxLimit(Bulkhead bulkhead) {
+        return switch (bulkhead) {
+            case POINT_READ -> properties.pointReadMaxLimit();
+            case WRITE -> properties.writeMaxLimit();
+            case SCAN -> properties.scanMaxLimit();
+        };
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String title, String detail,
+                        long retryAfterNanos) throws IOException {
+        ProblemResponses.write(response, objectMapper, status, title, detail,
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999)));
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, Bulkhead bulkhead, String outcome) {
+        return Counter.builder(REQUESTS_METER)
+                .description("Requests passed through admission control")
+                .tag("bulkhead", bulkhead.tag())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,26 @@
+package org.intensiv.userapi.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+
+import java.io.IOException;
+
+// Фильтры отвечают до DispatcherServlet, поэтому тело problem+json пишут сами, как GlobalExceptionHandler
+final class ProblemResponses {
+    private ProblemResponses() {
+    }
+
+    static void write(HttpServletResponse response, ObjectMapper objectMapper, HttpStatus status, String title,
+                      String detail, long retryAfterSeconds) throws IOException {
+        ProblemDetail body = ProblemDetail.forStatusAndDetail(status, detail);
+        body.setTitle(title);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,44 @@
+package org.intensiv.userapi.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.intensiv.userapi.admission.Bulkhead;
+import org.intensiv.userapi.datasource.Lsn;
+import org.intensiv.userapi.datasource.ReadConsistencyContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// LSN записи приходит из CommitLsnDataSource при коммите, до того как контроллер начнет писать ответ,
+// поэтому заголовок ставится без буферизации тела и без отдельного запроса к основной базе
+public class ReadConsistencyFilter extends OncePerRequestFilter {
+    public static final String READ_AFTER_HEADER = "X-Read-After";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader(READ_AFTER_HEADER);
+        if (token != null) {
+            try {
+                ReadConsistencyContext.requireLsn(Lsn.parse(token));
+            } catch (IllegalArgumentException e) {
+                // неизвестный токен не мешает чтению, просто не даёт гарантии
+            }
+        }
+        // POST /lookup — чтение, как и для admission control
+        if (Bulkhead.of(request) == Bulkhead.WRITE) {
+            ReadConsistencyContext.onWriteCommitted(lsn -> {
+                if (!response.isCommitted()) {
+                    response.setHeader(READ_AFTER_HEADER, Lsn.format(lsn));
+                }
+            });
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadConsistencyContext.clear();
+        }
+    }
+}
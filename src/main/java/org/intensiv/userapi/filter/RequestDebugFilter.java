@@ -0,0 +1,57 @@
+package org.intensiv.userapi.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+// X-Debug-Request включает полное логирование запроса, поэтому принимается только с доверенных адресов;
+// X-Request-Id попадает в логи и ответ, поэтому чужой идентификатор нестандартного вида заменяется своим
+public class RequestDebugFilter extends OncePerRequestFilter {
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String DEBUG_HEADER = "X-Debug-Request";
+    public static final String REQUEST_ID_MDC_KEY = "requestId";
+    public static final String DEBUG_MDC_KEY = "debug";
+    private static final Pattern REQUEST_ID_PATTERN = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+
+    private final double debugSampleRate;
+    private final AddressMatcher debugTrustedAddresses;
+
+    public RequestDebugFilter(double debugSampleRate, AddressMatcher debugTrustedAddresses) {
+        this.debugSampleRate = debugSampleRate;
+        this.debugTrustedAddresses = debugTrustedAddresses;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || !REQUEST_ID_PATTERN.matcher(requestId).matches()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        MDC.put(REQUEST_ID_MDC_KEY, requestId);
+        if (isDebugRequested(request)) {
+            MDC.put(DEBUG_MDC_KEY, "true");
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(DEBUG_MDC_KEY);
+            MDC.remove(REQUEST_ID_MDC_KEY);
+        }
+    }
+
+    private boolean isDebugRequested(HttpServletRequest request) {
+        return (Boolean.parseBoolean(request.getHeader(DEBUG_HEADER))
+                && debugTrustedAddresses.matches(request.getRemoteAddr()))
+                || (debugSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < debugSampleRate);
+    }
+}
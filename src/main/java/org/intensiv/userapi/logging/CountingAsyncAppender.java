@@ -0,0 +1,29 @@
+package org.intensiv.userapi.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Без блокировок: решение об отбросе принимается по оставшейся емкости очереди до постановки.
+// Если очередь заполнилась между проверкой и offer, AsyncAppender отбросит событие сам и оно
+// не попадет в счетчик, поэтому logback.events.dropped — оценка снизу
+public class CountingAsyncAppender extends AsyncAppender {
+    private static final LongAdder DROPPED_EVENTS = new LongAdder();
+
+    public static long droppedEvents() {
+        return DROPPED_EVENTS.sum();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remainingCapacity = getRemainingCapacity();
+        boolean discarded = remainingCapacity < getDiscardingThreshold() && isDiscardable(event);
+        boolean rejected = isNeverBlock() && remainingCapacity == 0;
+        if (discarded || rejected) {
+            DROPPED_EVENTS.increment();
+            return;
+        }
+        super.append(event);
+    }
+}
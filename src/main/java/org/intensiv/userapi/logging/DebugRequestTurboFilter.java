@@ -0,0 +1,25 @@
+package org.intensiv.userapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Setter;
+import org.intensiv.userapi.filter.RequestDebugFilter;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+// Для отлаживаемого запроса пропускает события любого уровня, но только логгеров приложения:
+// SQL и привязка параметров Hibernate остаются на своих уровнях
+public class DebugRequestTurboFilter extends TurboFilter {
+    @Setter
+    private String loggerPrefix = "org.intensiv.userapi";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || logger == null || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        return "true".equals(MDC.get(RequestDebugFilter.DEBUG_MDC_KEY)) ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+}
@@ -8,6 +8,7 @@ import org.mapstruct.*;
 
 @Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE, componentModel = MappingConstants.ComponentModel.SPRING)
 public interface UserMapper {
+    @Mapping(target = "updatedAt", source = "updated_at")
     UserResponseDto toUserResponseDto(User user);
 
     User toUserEntity(CreateUserRequestDto createUserRequestDto);
@@ -0,0 +1,4 @@
+package org.intensiv.userapi.repository;
+
+public record UserAgeCount(Integer age, Long users) {
+}
@@ -0,0 +1,4 @@
+package org.intensiv.userapi.repository;
+
+public record UserKeyset(Comparable<?> value, long id) {
+}
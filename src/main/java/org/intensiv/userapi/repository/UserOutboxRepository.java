@@ -0,0 +1,31 @@
+package org.intensiv.userapi.repository;
+
+import org.intensiv.userapi.entity.UserOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UserOutboxRepository extends JpaRepository<UserOutboxEvent, Long> {
+    // Отдаются только события транзакций старше xmin текущего снимка: все они уже завершены,
+    // а незавершённые получат txid не меньше xmin и не окажутся позади курсора.
+    @Query(value = """
+            SELECT * FROM user_outbox
+            WHERE (txid, id) > (:txid, :id)
+              AND txid < pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+            ORDER BY txid, id
+            LIMIT :limit""", nativeQuery = true)
+    List<UserOutboxEvent> findVisibleAfter(@Param("txid") long txid, @Param("id") long id, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM user_outbox
+            WHERE id IN (SELECT id FROM user_outbox WHERE created_at < :cutoff ORDER BY created_at LIMIT :batchSize)""",
+            nativeQuery = true)
+    int deleteBatchCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
@@ -1,12 +1,58 @@
 package org.intensiv.userapi.repository;
 
+import org.intensiv.userapi.dto.response.UserResponseDto;
 import org.intensiv.userapi.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    boolean existsByEmail(String email);
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
-    boolean existsByEmailAndIdNot(String email, Long id);
+public interface UserRepository extends JpaRepository<User, Long>, UserSearchRepository, UserUpdateRepository {
+    @Query("select lower(u.email) from User u where lower(u.email) in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
 
-    int deleteUserById(Long id);
+    @Transactional(readOnly = true)
+    @Query("""
+            select new org.intensiv.userapi.dto.response.UserResponseDto(u.id, u.name, u.email, u.version, u.updated_at)
+            from User u
+            where u.id = :id""")
+    Optional<UserResponseDto> findResponseById(@Param("id") Long id);
+
+    @Query("""
+            select new org.intensiv.userapi.dto.response.UserResponseDto(u.id, u.name, u.email, u.version, u.updated_at)
+            from User u
+            where u.id in :ids""")
+    List<UserResponseDto> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new org.intensiv.userapi.dto.response.UserResponseDto(u.id, u.name, u.email, u.version, u.updated_at)
+            from User u
+            where lower(u.email) = :email""")
+    Optional<UserResponseDto> findResponseByEmail(@Param("email") String email);
+
+    @Transactional
+    @Query(value = "DELETE FROM users WHERE id = :id RETURNING *", nativeQuery = true)
+    Optional<User> deleteReturningById(@Param("id") Long id);
+
+    @Query("select new org.intensiv.userapi.repository.UserAgeCount(u.age, count(u)) from User u group by u.age")
+    List<UserAgeCount> countByAge();
+
+    @Query("""
+            select new org.intensiv.userapi.repository.UserSignupCount(cast(u.created_at as LocalDate), count(u))
+            from User u
+            where u.created_at >= :from
+            group by cast(u.created_at as LocalDate)""")
+    List<UserSignupCount> countSignupsSince(@Param("from") LocalDateTime from);
+
+    // Оценка планировщика из pg_class: обновляется ANALYZE/autovacuum, -1 до первого ANALYZE
+    @Query(value = "SELECT cast(greatest(reltuples, 0) AS bigint) FROM pg_class WHERE oid = to_regclass('users')",
+            nativeQuery = true)
+    long estimateCount();
 }
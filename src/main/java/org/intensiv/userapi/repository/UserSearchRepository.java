@@ -0,0 +1,11 @@
+package org.intensiv.userapi.repository;
+
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface UserSearchRepository {
+    List<UserSearchRow> search(UserFilterRequestDto filter, UserSortField sortField, Sort.Direction direction,
+                      UserKeyset after, int limit);
+}
@@ -0,0 +1,97 @@
+package org.intensiv.userapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.entity.User;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserSearchRepositoryImpl implements UserSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSearchRow> search(UserFilterRequestDto filter, UserSortField sortField, Sort.Direction direction,
+                                      UserKeyset after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        Path<Integer> age = user.get("age");
+        Path<LocalDateTime> createdAt = user.get("created_at");
+        if (filter.minAge() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(age, filter.minAge()));
+        }
+        if (filter.maxAge() != null) {
+            predicates.add(cb.lessThanOrEqualTo(age, filter.maxAge()));
+        }
+        if (filter.createdFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdAt, filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            predicates.add(cb.lessThan(createdAt, filter.createdTo()));
+        }
+        if (filter.email() != null) {
+            predicates.add(cb.equal(cb.lower(user.get("email")), filter.email()));
+        }
+        if (after != null) {
+            predicates.add(keyset(cb, user, sortField, direction, after));
+        }
+
+        Path<Long> id = user.get("id");
+        query.multiselect(id, user.get("name"), user.get("email"), user.get("version"), user.get("updated_at"),
+                        user.get(sortField.attribute()))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(sortField == UserSortField.ID
+                        ? List.of(order(cb, id, direction))
+                        : List.of(order(cb, user.get(sortField.attribute()), direction), order(cb, id, direction)));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(UserSearchRepositoryImpl::toRow)
+                .toList();
+    }
+
+    private static UserSearchRow toRow(Tuple tuple) {
+        Long id = tuple.get(0, Long.class);
+        UserResponseDto user = new UserResponseDto(id, tuple.get(1, String.class), tuple.get(2, String.class),
+                tuple.get(3, Long.class), tuple.get(4, LocalDateTime.class));
+        return new UserSearchRow(user, new UserKeyset((Comparable<?>) tuple.get(5), id));
+    }
+
+    // Помимо строгого условия (value, id) > (after.value, after.id) добавляется value >= after.value:
+    // оно попадает в Index Cond составного индекса (value, id), а OR остаётся фильтром на узком диапазоне.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate keyset(CriteriaBuilder cb, Root<User> user, UserSortField sortField,
+                                    Sort.Direction direction, UserKeyset after) {
+        Path<Long> id = user.get("id");
+        if (sortField == UserSortField.ID) {
+            return direction.isAscending() ? cb.greaterThan(id, after.id()) : cb.lessThan(id, after.id());
+        }
+        Path<Comparable> value = user.get(sortField.attribute());
+        Comparable afterValue = after.value();
+        if (direction.isAscending()) {
+            return cb.and(cb.greaterThanOrEqualTo(value, afterValue),
+                    cb.or(cb.greaterThan(value, afterValue), cb.greaterThan(id, after.id())));
+        }
+        return cb.and(cb.lessThanOrEqualTo(value, afterValue),
+                cb.or(cb.lessThan(value, afterValue), cb.lessThan(id, after.id())));
+    }
+
+    private static Order order(CriteriaBuilder cb, Path<?> path, Sort.Direction direction) {
+        return direction.isAscending() ? cb.asc(path) : cb.desc(path);
+    }
+}
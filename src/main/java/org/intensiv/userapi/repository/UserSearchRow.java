@@ -0,0 +1,6 @@
+package org.intensiv.userapi.repository;
+
+import org.intensiv.userapi.dto.response.UserResponseDto;
+
+public record UserSearchRow(UserResponseDto user, UserKeyset keyset) {
+}
@@ -0,0 +1,6 @@
+package org.intensiv.userapi.repository;
+
+import java.time.LocalDate;
+
+public record UserSignupCount(LocalDate day, Long users) {
+}
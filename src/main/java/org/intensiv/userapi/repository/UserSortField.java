@@ -0,0 +1,42 @@
+package org.intensiv.userapi.repository;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+public enum UserSortField {
+    ID("id", "id", Long::valueOf),
+    NAME("name", "name", value -> value),
+    AGE("age", "age", Integer::valueOf),
+    CREATED_AT("created_at", "created_at", LocalDateTime::parse);
+
+    private final String parameter;
+    private final String attribute;
+    private final Function<String, Comparable<?>> parser;
+
+    UserSortField(String parameter, String attribute, Function<String, Comparable<?>> parser) {
+        this.parameter = parameter;
+        this.attribute = attribute;
+        this.parser = parser;
+    }
+
+    public static UserSortField fromParameter(String parameter) {
+        for (UserSortField field : values()) {
+            if (field.parameter.equals(parameter)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное поле сортировки: " + parameter);
+    }
+
+    public String parameter() {
+        return parameter;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    public Comparable<?> parseValue(String value) {
+        return parser.apply(value);
+    }
+}
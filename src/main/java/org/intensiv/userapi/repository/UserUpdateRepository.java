@@ -0,0 +1,7 @@
+package org.intensiv.userapi.repository;
+
+import java.util.Optional;
+
+public interface UserUpdateRepository {
+    Optional<UserUpdateResult> updateNonNullFields(Long id, String name, String email, Integer age, Long expectedVersion);
+}
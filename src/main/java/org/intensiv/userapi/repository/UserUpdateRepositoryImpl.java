@@ -0,0 +1,46 @@
+package org.intensiv.userapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.intensiv.userapi.entity.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public class UserUpdateRepositoryImpl implements UserUpdateRepository {
+    // Прежний возраст берется из той же команды: подзапрос блокирует строку и читает ее последнюю версию,
+    // так что отдельный SELECT ... FOR UPDATE не нужен
+    private static final String UPDATE_NON_NULL_FIELDS = """
+            UPDATE users u
+            SET name = coalesce(cast(:name AS varchar), u.name),
+                email = coalesce(cast(:email AS varchar), u.email),
+                age = coalesce(cast(:age AS integer), u.age),
+                version = u.version + 1,
+                updated_at = localtimestamp
+            FROM (SELECT id, age FROM users WHERE id = :id FOR UPDATE) previous
+            WHERE u.id = previous.id
+              AND (cast(:expectedVersion AS bigint) IS NULL OR u.version = :expectedVersion)
+            RETURNING u.*, previous.age AS previous_age""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Optional<UserUpdateResult> updateNonNullFields(Long id, String name, String email, Integer age,
+                                                          Long expectedVersion) {
+        List<?> rows = entityManager.createNativeQuery(UPDATE_NON_NULL_FIELDS, User.WITH_PREVIOUS_AGE_MAPPING)
+                .setParameter("id", id)
+                .setParameter("name", name)
+                .setParameter("email", email)
+                .setParameter("age", age)
+                .setParameter("expectedVersion", expectedVersion)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.getFirst();
+        return Optional.of(new UserUpdateResult((User) row[0], ((Number) row[1]).intValue()));
+    }
+}
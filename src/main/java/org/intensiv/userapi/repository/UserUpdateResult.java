@@ -0,0 +1,6 @@
+package org.intensiv.userapi.repository;
+
+import org.intensiv.userapi.entity.User;
+
+public record UserUpdateResult(User user, int previousAge) {
+}
@@ -0,0 +1,38 @@
+package org.intensiv.userapi.service;
+
+import org.intensiv.userapi.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+record ChangeCursor(long txid, long id) implements Comparable<ChangeCursor> {
+    static final ChangeCursor START = new ChangeCursor(0, 0);
+
+    static ChangeCursor decode(String cursor) {
+        if (cursor == null) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator < 0) {
+                throw new InvalidCursorException("Некорректный курсор: " + cursor);
+            }
+            return new ChangeCursor(Long.parseLong(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    @Override
+    public int compareTo(ChangeCursor other) {
+        int byTxid = Long.compare(txid, other.txid);
+        return byTxid != 0 ? byTxid : Long.compare(id, other.id);
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((txid + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,6 @@
+package org.intensiv.userapi.service;
+
+public enum ExportFormat {
+    CSV,
+    NDJSON
+}
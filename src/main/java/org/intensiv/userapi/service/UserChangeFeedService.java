@@ -0,0 +1,65 @@
+package org.intensiv.userapi.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.intensiv.userapi.config.ChangeFeedProperties;
+import org.intensiv.userapi.config.MetricsConfig;
+import org.intensiv.userapi.dto.response.UserChangeDto;
+import org.intensiv.userapi.dto.response.UserChangePageResponseDto;
+import org.intensiv.userapi.entity.UserOutboxEvent;
+import org.intensiv.userapi.repository.UserOutboxRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Slf4j
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@RequiredArgsConstructor
+public class UserChangeFeedService {
+    private final UserOutboxRepository userOutboxRepository;
+    private final ChangeFeedProperties changeFeedProperties;
+
+    @Transactional(readOnly = true)
+    public UserChangePageResponseDto getChanges(String since, Integer limit) {
+        int pageSize = limit == null
+                ? changeFeedProperties.defaultLimit()
+                : Math.min(limit, changeFeedProperties.maxLimit());
+        return getChanges(ChangeCursor.decode(since), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    UserChangePageResponseDto getChanges(ChangeCursor since, int pageSize) {
+        log.debug("Получение изменений пользователей since={} limit={}", since, pageSize);
+        List<UserChangeDto> events = userOutboxRepository.findVisibleAfter(since.txid(), since.id(), pageSize).stream()
+                .map(UserChangeFeedService::toUserChangeDto)
+                .toList();
+        String nextCursor = events.isEmpty() ? since.encode() : events.get(events.size() - 1).cursor();
+        return new UserChangePageResponseDto(events, nextCursor);
+    }
+
+    @Scheduled(fixedDelayString = "${userapi.change-feed.prune-interval:1h}",
+            initialDelayString = "${userapi.change-feed.prune-interval:1h}")
+    public void pruneEvents() {
+        LocalDateTime cutoff = LocalDateTime.now(ZoneOffset.UTC).minus(changeFeedProperties.retention());
+        int batchSize = changeFeedProperties.pruneBatchSize();
+        long pruned = 0;
+        int deleted;
+        do {
+            deleted = userOutboxRepository.deleteBatchCreatedBefore(cutoff, batchSize);
+            pruned += deleted;
+        } while (deleted == batchSize);
+        log.info("Удалены события изменений пользователей старше {} count={}", cutoff, pruned);
+    }
+
+    private static UserChangeDto toUserChangeDto(UserOutboxEvent event) {
+        return new UserChangeDto(new ChangeCursor(event.getTxid(), event.getId()).encode(), event.getUser_id(),
+                event.getEvent_type(), event.getName(), event.getEmail(), event.getAge(), event.getVersion(),
+                event.getCreated_at());
+    }
+}
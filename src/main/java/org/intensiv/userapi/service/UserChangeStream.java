@@ -0,0 +1,153 @@
+package org.intensiv.userapi.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.intensiv.userapi.config.ChangeFeedProperties;
+import org.intensiv.userapi.dto.response.UserChangeDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Опрос общий: одна выборка от минимального курсора подписчиков раздается всем, кого она покрывает.
+// Запись в соединения идет в собственном пуле, а у подписчика не больше одной отправки в полете:
+// медленный клиент пропускает опросы и не задерживает ни остальных, ни планировщик.
+@Slf4j
+@Component
+public class UserChangeStream implements AutoCloseable {
+    private final UserChangeFeedService userChangeFeedService;
+    private final ChangeFeedProperties changeFeedProperties;
+    private final Executor sender;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public UserChangeStream(UserChangeFeedService userChangeFeedService, ChangeFeedProperties changeFeedProperties) {
+        this(userChangeFeedService, changeFeedProperties, new ThreadPoolExecutor(
+                changeFeedProperties.streamSendThreads(), changeFeedProperties.streamSendThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(changeFeedProperties.streamSendQueueCapacity()),
+                Thread.ofPlatform().name("user-change-stream-", 0).daemon(true).factory()));
+    }
+
+    UserChangeStream(UserChangeFeedService userChangeFeedService, ChangeFeedProperties changeFeedProperties,
+                     Executor sender) {
+        this.userChangeFeedService = userChangeFeedService;
+        this.changeFeedProperties = changeFeedProperties;
+        this.sender = sender;
+    }
+
+    public SseEmitter subscribe(String since) {
+        Subscription subscription = new Subscription(new SseEmitter(changeFeedProperties.streamTimeout().toMillis()),
+                ChangeCursor.decode(since));
+        subscription.emitter.onCompletion(() -> subscriptions.remove(subscription));
+        subscription.emitter.onTimeout(subscription.emitter::complete);
+        subscription.emitter.onError(e -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        log.debug("Подписка на изменения пользователей since={} subscribers={}", subscription.cursor, subscriptions.size());
+        return subscription.emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${userapi.change-feed.stream-poll-interval:1s}")
+    public void publish() {
+        List<Subscription> pending = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.sending.compareAndSet(false, true)) {
+                pending.add(subscription);
+            }
+        }
+        // Полная страница покрывает курсоры только до своего последнего события; подписчики дальше
+        // читаются следующей выборкой от их минимума
+        while (!pending.isEmpty()) {
+            ChangeCursor from = pending.stream().map(subscription -> subscription.cursor)
+                    .min(Comparator.naturalOrder())
+                    .orElseThrow();
+            List<Change> page;
+            try {
+                page = userChangeFeedService.getChanges(from, changeFeedProperties.maxLimit()).events().stream()
+                        .map(event -> new Change(ChangeCursor.decode(event.cursor()), event))
+                        .toList();
+            } catch (RuntimeException e) {
+                log.warn("Не удалось прочитать изменения пользователей для подписчиков: {}", e.getMessage());
+                pending.forEach(subscription -> subscription.sending.set(false));
+                return;
+            }
+            ChangeCursor covered = page.size() < changeFeedProperties.maxLimit() ? null : page.getLast().cursor;
+            List<Subscription> uncovered = new ArrayList<>();
+            for (Subscription subscription : pending) {
+                if (covered != null && subscription.cursor.compareTo(covered) >= 0) {
+                    uncovered.add(subscription);
+                    continue;
+                }
+                List<Change> changes = page.stream()
+                        .filter(change -> change.cursor.compareTo(subscription.cursor) > 0)
+                        .toList();
+                if (changes.isEmpty()) {
+                    subscription.sending.set(false);
+                } else {
+                    dispatch(subscription, changes);
+                }
+            }
+            pending = uncovered;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void dispatch(Subscription subscription, List<Change> changes) {
+        try {
+            sender.execute(() -> send(subscription, changes));
+        } catch (RejectedExecutionException e) {
+            subscription.sending.set(false);
+            log.debug("Очередь отправки изменений пользователей заполнена, подписчик получит их в следующем опросе");
+        }
+    }
+
+    private void send(Subscription subscription, List<Change> changes) {
+        try {
+            for (Change change : changes) {
+                subscription.emitter.send(SseEmitter.event()
+                        .id(change.event.cursor())
+                        .name(change.event.type().name())
+                        .data(change.event, MediaType.APPLICATION_JSON));
+                subscription.cursor = change.cursor;
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscriptions.remove(subscription);
+            subscription.emitter.completeWithError(e);
+        } finally {
+            subscription.sending.set(false);
+        }
+    }
+
+    private record Change(ChangeCursor cursor, UserChangeDto event) {
+    }
+
+    private static final class Subscription {
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile ChangeCursor cursor;
+
+        private Subscription(SseEmitter emitter, ChangeCursor cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.intensiv.userapi.service;
+
+import org.intensiv.userapi.exception.InvalidCursorException;
+import org.intensiv.userapi.repository.UserKeyset;
+import org.intensiv.userapi.repository.UserSortField;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Курсор при сортировке по id — просто id, иначе "поле:значение:id"
+public final class UserCursors {
+    private UserCursors() {
+    }
+
+    public static String encode(UserKeyset keyset, UserSortField sortField) {
+        String cursor = sortField == UserSortField.ID
+                ? Long.toString(keyset.id())
+                : sortField.parameter() + ":" + keyset.value() + ":" + keyset.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserKeyset decode(String cursor, UserSortField sortField) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            UserKeyset keyset;
+            if (sortField == UserSortField.ID) {
+                keyset = new UserKeyset(null, Long.parseLong(decoded));
+            } else {
+                int fieldEnd = decoded.indexOf(':');
+                int valueEnd = decoded.lastIndexOf(':');
+                if (fieldEnd < 0 || fieldEnd == valueEnd
+                        || !decoded.substring(0, fieldEnd).equals(sortField.parameter())) {
+                    throw new InvalidCursorException("Некорректный курсор: " + cursor);
+                }
+                keyset = new UserKeyset(sortField.parseValue(decoded.substring(fieldEnd + 1, valueEnd)),
+                        Long.parseLong(decoded.substring(valueEnd + 1)));
+            }
+            if (keyset.id() < 0) {
+                throw new InvalidCursorException("Некорректный курсор: " + cursor);
+            }
+            return keyset;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Некорректный курсор: " + cursor);
+        }
+    }
+}
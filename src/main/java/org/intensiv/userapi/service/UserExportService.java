@@ -0,0 +1,168 @@
+package org.intensiv.userapi.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.intensiv.userapi.config.MetricsConfig;
+import org.intensiv.userapi.config.UserExportProperties;
+import org.intensiv.userapi.exception.ExportLimitExceededException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Semaphore;
+
+// Строки читаются курсором PostgreSQL по fetch-size и сразу пишутся в ответ: ни сущностей, ни DTO,
+// в памяти одновременно не больше одной порции строк.
+@Slf4j
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class UserExportService {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,name,email,age,created_at,updated_at,version";
+    private static final String EXPORT_QUERY = """
+            SELECT id, name, email, age, created_at, updated_at, version
+            FROM users
+            ORDER BY id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+    private final Semaphore exports;
+
+    public UserExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager, UserExportProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = properties.fetchSize();
+        this.exports = new Semaphore(properties.maxConcurrent());
+    }
+
+    // Разрешение берется до ответа и до транзакции: лишняя выгрузка отклоняется, пока ответ еще не
+    // тронут и соединение не занято
+    public ExportPermit acquirePermit() {
+        if (!exports.tryAcquire()) {
+            throw new ExportLimitExceededException("Уже выполняется максимальное число выгрузок пользователей");
+        }
+        return exports::release;
+    }
+
+    // Курсор PostgreSQL работает только с выключенным autocommit, поэтому чтение идет в транзакции;
+    // все строки читаются одним запросом и видят один снимок таблицы.
+    public long exportUsers(OutputStream output, ExportFormat format) {
+        log.debug("Запрос на выгрузку пользователей format={}", format);
+        long rows = readOnlyTransaction.execute(status -> writeRows(output, format));
+        log.info("Выгрузка пользователей завершена format={} rows={}", format, rows);
+        return rows;
+    }
+
+    private long writeRows(OutputStream output, ExportFormat format) {
+        try {
+            return switch (format) {
+                case CSV -> writeCsv(output);
+                case NDJSON -> writeNdjson(output);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи выгрузки пользователей", e);
+        }
+    }
+
+    private long writeCsv(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long rows = streamRows(rs -> {
+            writer.write(Long.toString(rs.getLong("id")));
+            writer.write(',');
+            writer.write(toCsvField(rs.getString("name")));
+            writer.write(',');
+            writer.write(toCsvField(rs.getString("email")));
+            writer.write(',');
+            writer.write(Integer.toString(rs.getInt("age")));
+            writer.write(',');
+            writer.write(formatTimestamp(rs, "created_at"));
+            writer.write(',');
+            writer.write(formatTimestamp(rs, "updated_at"));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong("version")));
+            writer.write('\n');
+        });
+        writer.flush();
+        return rows;
+    }
+
+    private long writeNdjson(OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            return streamRows(rs -> {
+                generator.writeStartObject();
+                generator.writeNumberField("id", rs.getLong("id"));
+                generator.writeStringField("name", rs.getString("name"));
+                generator.writeStringField("email", rs.getString("email"));
+                generator.writeNumberField("age", rs.getInt("age"));
+                generator.writeStringField("createdAt", formatTimestamp(rs, "created_at"));
+                generator.writeStringField("updatedAt", formatTimestamp(rs, "updated_at"));
+                generator.writeNumberField("version", rs.getLong("version"));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    private long streamRows(RowWriter rowWriter) {
+        long[] rows = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ошибка записи выгрузки пользователей", e);
+            }
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private static String formatTimestamp(ResultSet rs, String column) throws SQLException {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(rs.getObject(column, LocalDateTime.class));
+    }
+
+    private static String toCsvField(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    public interface ExportPermit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
@@ -0,0 +1,242 @@
+package org.intensiv.userapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.intensiv.userapi.config.MetricsConfig;
+import org.intensiv.userapi.dto.request.CreateUserRequestDto;
+import org.intensiv.userapi.dto.response.ImportResultDto;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@RequiredArgsConstructor
+public class UserImportService {
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // Три поля по 255 символов с кавычками и экранированием помещаются с запасом
+    private static final int MAX_LINE_LENGTH = 4 * 1024;
+    private static final String CSV_HEADER = "name,email,age";
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMPORARY TABLE users_import (name text, email text, age integer) ON COMMIT DROP""";
+    private static final String COPY_TO_STAGING_TABLE = """
+            COPY users_import (name, email, age) FROM STDIN (FORMAT csv)""";
+    private static final String MERGE_STAGING_TABLE = """
+            WITH inserted AS (
+                INSERT INTO users (name, email, age, created_at)
+                SELECT DISTINCT ON (email) name, email, age, localtimestamp
+                FROM users_import
+                ORDER BY email
+                ON CONFLICT ((lower(email))) DO NOTHING
+                RETURNING id, name, email, age, version
+            ), outbox AS (
+                INSERT INTO user_outbox (user_id, event_type, name, email, age, version)
+                SELECT id, 'CREATED', name, email, age, version
+                FROM inserted
+            )
+            SELECT age, cast(localtimestamp AS date) AS day, count(*) AS users
+            FROM inserted
+            GROUP BY age""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final UserStatsService userStatsService;
+
+    @Transactional
+    public ImportResultDto importUsers(InputStream input, ImportFormat format) {
+        log.debug("Запрос на импорт пользователей format={}", format);
+        jdbcTemplate.execute(CREATE_STAGING_TABLE);
+        StagingResult staged = jdbcTemplate.execute(
+                (ConnectionCallback<StagingResult>) connection -> copyToStaging(connection, input, format));
+        long imported = 0;
+        for (ImportedAges ages : jdbcTemplate.query(MERGE_STAGING_TABLE, (rs, rowNum) ->
+                new ImportedAges(rs.getInt("age"), rs.getObject("day", LocalDate.class), rs.getLong("users")))) {
+            userStatsService.recordCreated(ages.age(), ages.day(), ages.users());
+            imported += ages.users();
+        }
+
+        ImportResultDto result = new ImportResultDto(imported, staged.rejected(), staged.copied() - imported);
+        log.info("Импорт пользователей завершен imported={} rejected={} duplicates={}",
+                result.imported(), result.rejected(), result.duplicates());
+        return result;
+    }
+
+    private StagingResult copyToStaging(Connection connection, InputStream input, ImportFormat format) throws SQLException {
+        PGCopyOutputStream copyStream = new PGCopyOutputStream(
+                connection.unwrap(PGConnection.class), COPY_TO_STAGING_TABLE, COPY_BUFFER_SIZE);
+        long rejected = 0;
+        try {
+            LineReader reader = new LineReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(copyStream, StandardCharsets.UTF_8), COPY_BUFFER_SIZE);
+            String line;
+            boolean firstLine = true;
+            while ((line = reader.readLine()) != null) {
+                if (reader.tooLong()) {
+                    firstLine = false;
+                    rejected++;
+                    continue;
+                }
+                boolean header = firstLine && format == ImportFormat.CSV && line.strip().equalsIgnoreCase(CSV_HEADER);
+                firstLine = false;
+                if (header || line.isBlank()) {
+                    continue;
+                }
+                CreateUserRequestDto dto = parse(line, format);
+                if (dto == null || !isValid(dto)) {
+                    rejected++;
+                    continue;
+                }
+                writer.write(toCsvField(dto.name()));
+                writer.write(',');
+                writer.write(toCsvField(dto.email()));
+                writer.write(',');
+                writer.write(dto.age().toString());
+                writer.write('\n');
+            }
+            writer.flush();
+            return new StagingResult(copyStream.endCopy(), rejected);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения данных импорта", e);
+        } finally {
+            if (copyStream.isActive()) {
+                copyStream.cancelCopy();
+            }
+        }
+    }
+
+    private CreateUserRequestDto parse(String line, ImportFormat format) {
+        return switch (format) {
+            case CSV -> parseCsv(line);
+            case NDJSON -> parseNdjson(line);
+        };
+    }
+
+    private CreateUserRequestDto parseNdjson(String line) {
+        try {
+            return objectMapper.readValue(line, CreateUserRequestDto.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static CreateUserRequestDto parseCsv(String line) {
+        List<String> fields = splitCsvLine(line);
+        if (fields == null || fields.size() != 3) {
+            return null;
+        }
+        try {
+            return new CreateUserRequestDto(fields.get(0), fields.get(1), Integer.valueOf(fields.get(2).strip()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private boolean isValid(CreateUserRequestDto dto) {
+        return validator.validate(dto).isEmpty();
+    }
+
+    private static String toCsvField(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // readLine без ограничения длины: одна загрузка без переводов строки заняла бы весь heap.
+    // Символы сверх MAX_LINE_LENGTH отбрасываются, а строка помечается слишком длинной.
+    private static final class LineReader {
+        private final Reader reader;
+        private final StringBuilder line = new StringBuilder();
+        private boolean tooLong;
+
+        private LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        private String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1 && c != '\n') {
+                if (line.length() < MAX_LINE_LENGTH) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+                c = reader.read();
+            }
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            return line.toString();
+        }
+
+        private boolean tooLong() {
+            return tooLong;
+        }
+    }
+
+    private record StagingResult(long copied, long rejected) {
+    }
+
+    private record ImportedAges(int age, LocalDate day, long users) {
+    }
+}
@@ -1,73 +1,282 @@
 package org.intensiv.userapi.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.intensiv.userapi.config.BatchCreateProperties;
+import org.intensiv.userapi.config.CacheConfig;
+import org.intensiv.userapi.config.MetricsConfig;
+import org.intensiv.userapi.config.MultiGetProperties;
+import org.intensiv.userapi.config.PaginationProperties;
 import org.intensiv.userapi.dto.request.CreateUserRequestDto;
+import org.intensiv.userapi.dto.request.Emails;
 import org.intensiv.userapi.dto.request.UpdateUserRequestDto;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.response.BatchCreateItemResultDto;
+import org.intensiv.userapi.dto.response.UserLookupResponseDto;
+import org.intensiv.userapi.dto.response.UserPageResponseDto;
 import org.intensiv.userapi.dto.response.UserResponseDto;
 import org.intensiv.userapi.entity.User;
+import org.intensiv.userapi.entity.UserChangeType;
+import org.intensiv.userapi.entity.UserOutboxEvent;
+import org.intensiv.userapi.exception.BatchTooLargeException;
 import org.intensiv.userapi.exception.DuplicateEmailException;
+import org.intensiv.userapi.exception.PreconditionFailedException;
+import org.intensiv.userapi.exception.TooManyIdsException;
 import org.intensiv.userapi.exception.UserNotFoundException;
 import org.intensiv.userapi.mapper.UserMapper;
+import org.intensiv.userapi.repository.UserKeyset;
+import org.intensiv.userapi.repository.UserOutboxRepository;
 import org.intensiv.userapi.repository.UserRepository;
+import org.intensiv.userapi.repository.UserSearchRow;
+import org.intensiv.userapi.repository.UserSortField;
+import org.intensiv.userapi.repository.UserUpdateResult;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class UserService {
+    private static final int MAX_BATCH_CREATE_ATTEMPTS = 3;
+
     private final UserRepository userRepository;
+    private final UserOutboxRepository userOutboxRepository;
+    private final UserStatsService userStatsService;
     private final UserMapper userMapper;
+    private final PaginationProperties paginationProperties;
+    private final MultiGetProperties multiGetProperties;
+    private final BatchCreateProperties batchCreateProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<Long, CompletableFuture<UserResponseDto>> inFlightLoads = new ConcurrentHashMap<>();
 
     @Transactional
     public UserResponseDto createUser(CreateUserRequestDto requestDto) {
         log.debug("Запрос на создание пользователя name={} email={}", requestDto.name(), requestDto.email());
-        if (userRepository.existsByEmail(requestDto.email())) {
-            throw new DuplicateEmailException("Пользователь с email " + requestDto.email() + " уже существует");
-        }
         User user = userMapper.toUserEntity(requestDto);
-        UserResponseDto responseDto = userMapper.toUserResponseDto(userRepository.save(user));
+        try {
+            user = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (DuplicateEmailException.isCausedByDuplicateEmail(e)) {
+                throw new DuplicateEmailException("Пользователь с email " + requestDto.email() + " уже существует");
+            }
+            throw e;
+        }
+        userOutboxRepository.save(UserOutboxEvent.of(UserChangeType.CREATED, user));
+        userStatsService.recordCreated(user.getAge(), user.getCreated_at().toLocalDate(), 1);
+        UserResponseDto responseDto = userMapper.toUserResponseDto(user);
         log.info("Пользователь создан name={} email={}", requestDto.name(), requestDto.email());
         return responseDto;
     }
 
-    @Transactional(readOnly = true)
+    // Email, занятый параллельным запросом между проверкой и вставкой, нарушает уникальный индекс.
+    // Тогда пакет повторяется в новой транзакции, и проверка отдает по этому email conflict
+    public List<BatchCreateItemResultDto> createUsers(List<CreateUserRequestDto> requestDtos) {
+        if (requestDtos.size() > batchCreateProperties.maxSize()) {
+            throw new BatchTooLargeException("Нельзя создать больше " + batchCreateProperties.maxSize()
+                    + " пользователей за раз, передано " + requestDtos.size());
+        }
+        log.debug("Запрос на пакетное создание пользователей count={}", requestDtos.size());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> insertBatch(requestDtos));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_BATCH_CREATE_ATTEMPTS || !DuplicateEmailException.isCausedByDuplicateEmail(e)) {
+                    throw e;
+                }
+                log.debug("Email из пакета занят параллельным запросом, повтор attempt={}", attempt);
+            }
+        }
+    }
+
+    private List<BatchCreateItemResultDto> insertBatch(List<CreateUserRequestDto> requestDtos) {
+        Set<String> existingEmails = userRepository.findExistingEmails(
+                requestDtos.stream().map(CreateUserRequestDto::email).collect(Collectors.toSet()));
+
+        Set<String> batchEmails = new HashSet<>();
+        List<BatchCreateItemResultDto> results = new ArrayList<>(requestDtos.size());
+        List<Integer> createdIndexes = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < requestDtos.size(); i++) {
+            String email = requestDtos.get(i).email();
+            if (existingEmails.contains(email) || !batchEmails.add(email)) {
+                results.add(BatchCreateItemResultDto.conflict(i, "Пользователь с email " + email + " уже существует"));
+            } else {
+                results.add(null);
+                createdIndexes.add(i);
+                users.add(userMapper.toUserEntity(requestDtos.get(i)));
+            }
+        }
+
+        List<User> savedUsers = userRepository.saveAll(users);
+        userRepository.flush();
+        userOutboxRepository.saveAll(savedUsers.stream()
+                .map(savedUser -> UserOutboxEvent.of(UserChangeType.CREATED, savedUser))
+                .toList());
+        for (int i = 0; i < savedUsers.size(); i++) {
+            int index = createdIndexes.get(i);
+            User savedUser = savedUsers.get(i);
+            userStatsService.recordCreated(savedUser.getAge(), savedUser.getCreated_at().toLocalDate(), 1);
+            results.set(index, BatchCreateItemResultDto.created(index, userMapper.toUserResponseDto(savedUser)));
+        }
+        log.info("Пакетное создание пользователей завершено created={} conflicts={}",
+                savedUsers.size(), requestDtos.size() - savedUsers.size());
+        return results;
+    }
+
+    // Без @Transactional: ожидающие чужой загрузки запросы не должны держать соединение из пула.
+    // С X-Read-After кэш пропускается: запись могла прийти через другой экземпляр, чей кэш здесь не сброшен
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id",
+            condition = "!T(org.intensiv.userapi.datasource.ReadConsistencyContext).hasRequiredLsn()")
     public UserResponseDto getUser(Long id) {
+        CompletableFuture<UserResponseDto> load = new CompletableFuture<>();
+        CompletableFuture<UserResponseDto> inFlight = inFlightLoads.putIfAbsent(id, load);
+        if (inFlight != null) {
+            log.debug("Ожидание загрузки пользователя id={} другим запросом", id);
+            return await(inFlight);
+        }
+
         log.debug("Получение пользователя по id={}", id);
-        return userRepository.findById(id)
-                .map(userMapper::toUserResponseDto)
-                .orElseThrow(() -> new UserNotFoundException("User c id:" + id + " не найден"));
+        try {
+            // не read-only, то есть в основной базе: значение с отстающей реплики прожило бы в кэше весь TTL
+            UserResponseDto user = transactionTemplate.execute(status -> userRepository.findById(id)
+                            .map(userMapper::toUserResponseDto))
+                    .orElseThrow(() -> new UserNotFoundException(id));
+            load.complete(user);
+            return user;
+        } catch (Throwable e) {
+            // и Error тоже: иначе ожидающие запросы навсегда останутся в join()
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(id, load);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public UserResponseDto getUserByEmail(String email) {
+        String normalizedEmail = Emails.normalize(email);
+        log.debug("Получение пользователя по email={}", normalizedEmail);
+        return userRepository.findResponseByEmail(normalizedEmail)
+                .orElseThrow(() -> new UserNotFoundException("User c email:" + normalizedEmail + " не найден"));
+    }
+
+    @Transactional(readOnly = true)
+    public UserLookupResponseDto getUsersByIds(List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > multiGetProperties.maxIds()) {
+            throw new TooManyIdsException("Нельзя запросить больше " + multiGetProperties.maxIds()
+                    + " пользователей за раз, передано " + uniqueIds.size());
+        }
+        log.debug("Получение пользователей по списку id count={}", uniqueIds.size());
+
+        Map<Long, UserResponseDto> usersById = userRepository.findResponsesByIdIn(uniqueIds).stream()
+                .collect(Collectors.toMap(UserResponseDto::id, Function.identity()));
+        List<UserResponseDto> items = new ArrayList<>(usersById.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            UserResponseDto user = usersById.get(id);
+            if (user == null) {
+                missingIds.add(id);
+            } else {
+                items.add(user);
+            }
+        }
+        return new UserLookupResponseDto(items, missingIds);
     }
 
     @Transactional(readOnly = true)
-    public List<UserResponseDto> getAllUsers() {
-        log.debug("Получение всех пользователей");
-        return userRepository.findAll().stream().map(userMapper::toUserResponseDto).toList();
+    public UserPageResponseDto getUsers(UserFilterRequestDto filter, String sort, String after, Integer limit) {
+        boolean descending = sort != null && sort.startsWith("-");
+        UserSortField sortField = sort == null
+                ? UserSortField.ID
+                : UserSortField.fromParameter(descending ? sort.substring(1) : sort);
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        UserKeyset keyset = after == null ? null : UserCursors.decode(after, sortField);
+        int pageSize = limit == null
+                ? paginationProperties.defaultLimit()
+                : Math.min(limit, paginationProperties.maxLimit());
+        log.debug("Получение страницы пользователей filter={} sort={} {} after={} limit={}",
+                filter, sortField, direction, keyset, pageSize);
+
+        List<UserSearchRow> rows = userRepository.search(filter, sortField, direction, keyset, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<UserResponseDto> items = rows.stream()
+                .limit(pageSize)
+                .map(UserSearchRow::user)
+                .toList();
+        String nextCursor = hasNext ? UserCursors.encode(rows.get(pageSize - 1).keyset(), sortField) : null;
+        return new UserPageResponseDto(items, nextCursor);
     }
 
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     @Transactional
-    public UserResponseDto updateUser(Long id, UpdateUserRequestDto updatedUserDto) {
-        log.debug("Обновление пользователя id={} name={}", id, updatedUserDto.name());
-        if (userRepository.existsByEmailAndIdNot(updatedUserDto.email(), id)) {
-            throw new DuplicateEmailException("Пользователь с email " + updatedUserDto.email() + " уже существует");
+    public UserResponseDto updateUser(Long id, UpdateUserRequestDto updatedUserDto, Long expectedVersion) {
+        log.debug("Обновление пользователя id={} name={} expectedVersion={}", id, updatedUserDto.name(), expectedVersion);
+        UserUpdateResult updated;
+        try {
+            updated = userRepository.updateNonNullFields(id, updatedUserDto.name(), updatedUserDto.email(), updatedUserDto.age(),
+                            expectedVersion)
+                    .orElseThrow(() -> expectedVersion != null && userRepository.existsById(id)
+                            ? new PreconditionFailedException("Версия пользователя id:" + id + " не совпадает с " + expectedVersion)
+                            : new UserNotFoundException(id));
+        } catch (DataIntegrityViolationException e) {
+            if (DuplicateEmailException.isCausedByDuplicateEmail(e)) {
+                throw new DuplicateEmailException("Пользователь с email " + updatedUserDto.email() + " уже существует");
+            }
+            throw e;
         }
-        User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User c id:" + id + " не найден"));
-        userMapper.updateUserFromDto(updatedUserDto, user);
-        userRepository.save(user);
 
+        User user = updated.user();
+        userOutboxRepository.save(UserOutboxEvent.of(UserChangeType.UPDATED, user));
+        if (updated.previousAge() != user.getAge()) {
+            userStatsService.recordAgeChanged(updated.previousAge(), user.getAge());
+        }
         log.info("Пользователь обновлен id={}", user.getId());
         return userMapper.toUserResponseDto(user);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     @Transactional
     public void deleteUser(Long id) {
         log.debug("Удаление пользователя id={}", id);
-        if (userRepository.deleteUserById(id) == 0){
-            throw new UserNotFoundException("User c id:" + id + " не найден");
-        }
+        User user = userRepository.deleteReturningById(id).orElseThrow(() -> new UserNotFoundException(id));
+        userOutboxRepository.save(UserOutboxEvent.deleted(id));
+        userStatsService.recordDeleted(user.getAge(), user.getCreated_at().toLocalDate());
         log.info("Пользователь удален id={}", id);
     }
+
+    private static UserResponseDto await(CompletableFuture<UserResponseDto> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 }
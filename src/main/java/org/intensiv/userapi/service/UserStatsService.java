@@ -0,0 +1,151 @@
+package org.intensiv.userapi.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.intensiv.userapi.config.UserStatsProperties;
+import org.intensiv.userapi.dto.response.AgeBucketDto;
+import org.intensiv.userapi.dto.response.DailySignupsDto;
+import org.intensiv.userapi.dto.response.UserStatsResponseDto;
+import org.intensiv.userapi.repository.UserAgeCount;
+import org.intensiv.userapi.repository.UserRepository;
+import org.intensiv.userapi.repository.UserSignupCount;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Счетчики живут в памяти и меняются после коммита каждой записи; сверка с базой раз в reconcile-interval
+// исправляет расхождения (импорт параллельно со сверкой, изменения с других инстансов).
+@Slf4j
+@Service
+public class UserStatsService {
+    private static final int MAX_AGE = 150;
+
+    private final UserRepository userRepository;
+    private final UserStatsProperties userStatsProperties;
+    private volatile Counters counters;
+
+    public UserStatsService(UserRepository userRepository, UserStatsProperties userStatsProperties) {
+        this.userRepository = userRepository;
+        this.userStatsProperties = userStatsProperties;
+        this.counters = new Counters(bucketCount(), null);
+    }
+
+    // Без транзакции: без approximate ответ собирается из памяти и соединение из пула не нужно
+    public UserStatsResponseDto getStats(boolean approximate) {
+        Counters current = counters;
+        int width = userStatsProperties.ageBucketWidth();
+        List<AgeBucketDto> ageHistogram = new ArrayList<>(current.ageBuckets.length());
+        for (int i = 0; i < current.ageBuckets.length(); i++) {
+            ageHistogram.add(new AgeBucketDto(i * width, Math.min((i + 1) * width - 1, MAX_AGE),
+                    current.ageBuckets.get(i)));
+        }
+        LocalDate firstDay = firstSignupDay();
+        List<DailySignupsDto> dailySignups = current.signups.entrySet().stream()
+                .filter(entry -> !entry.getKey().isBefore(firstDay))
+                .map(entry -> new DailySignupsDto(entry.getKey(), entry.getValue().sum()))
+                .sorted(Comparator.comparing(DailySignupsDto::day))
+                .toList();
+        Long approximateCount = approximate ? userRepository.estimateCount() : null;
+        return new UserStatsResponseDto(current.count.sum(), approximateCount, ageHistogram, dailySignups,
+                current.reconciledAt);
+    }
+
+    public void recordCreated(int age, LocalDate day, long users) {
+        afterCommit(() -> {
+            Counters current = counters;
+            current.count.add(users);
+            current.ageBuckets.addAndGet(bucket(age), users);
+            current.signups.computeIfAbsent(day, d -> new LongAdder()).add(users);
+        });
+    }
+
+    public void recordAgeChanged(int previousAge, int age) {
+        if (bucket(previousAge) == bucket(age)) {
+            return;
+        }
+        afterCommit(() -> {
+            Counters current = counters;
+            current.ageBuckets.decrementAndGet(bucket(previousAge));
+            current.ageBuckets.incrementAndGet(bucket(age));
+        });
+    }
+
+    public void recordDeleted(int age, LocalDate day) {
+        afterCommit(() -> {
+            Counters current = counters;
+            current.count.decrement();
+            current.ageBuckets.decrementAndGet(bucket(age));
+            LongAdder signups = current.signups.get(day);
+            if (signups != null) {
+                signups.decrement();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${userapi.stats.reconcile-interval:10m}")
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void reconcile() {
+        Counters reconciled = new Counters(bucketCount(), LocalDateTime.now(ZoneOffset.UTC));
+        for (UserAgeCount ageCount : userRepository.countByAge()) {
+            reconciled.count.add(ageCount.users());
+            reconciled.ageBuckets.addAndGet(bucket(ageCount.age()), ageCount.users());
+        }
+        for (UserSignupCount signupCount : userRepository.countSignupsSince(firstSignupDay().atStartOfDay())) {
+            reconciled.signups.computeIfAbsent(signupCount.day(), d -> new LongAdder()).add(signupCount.users());
+        }
+        long drift = reconciled.count.sum() - counters.count.sum();
+        counters = reconciled;
+        log.info("Статистика пользователей сверена с базой count={} drift={}", reconciled.count.sum(), drift);
+    }
+
+    private LocalDate firstSignupDay() {
+        return LocalDate.now(ZoneOffset.UTC).minusDays(userStatsProperties.signupDays() - 1L);
+    }
+
+    private int bucketCount() {
+        return MAX_AGE / userStatsProperties.ageBucketWidth() + 1;
+    }
+
+    private int bucket(int age) {
+        return Math.clamp(age, 0, MAX_AGE) / userStatsProperties.ageBucketWidth();
+    }
+
+    // Откат транзакции не должен менять счетчики
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Counters {
+        private final LongAdder count = new LongAdder();
+        private final AtomicLongArray ageBuckets;
+        private final ConcurrentMap<LocalDate, LongAdder> signups = new ConcurrentHashMap<>();
+        private final LocalDateTime reconciledAt;
+
+        private Counters(int bucketCount, LocalDateTime reconciledAt) {
+            this.ageBuckets = new AtomicLongArray(bucketCount);
+            this.reconciledAt = reconciledAt;
+        }
+    }
+}
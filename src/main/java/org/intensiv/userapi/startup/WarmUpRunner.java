@@ -0,0 +1,133 @@
+package org.intensiv.userapi.startup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.intensiv.userapi.config.WarmUpProperties;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Runner выполняется до ApplicationReadyEvent, поэтому readiness станет UP только после прогрева.
+// Запросы идут через настоящий HTTP-стек (фильтры, Jackson, валидация, обработчик ошибок) и ничего не меняют в данных.
+@Slf4j
+public class WarmUpRunner implements ApplicationRunner {
+    private static final String USERS = "/userapi/users";
+    private static final String MISSING_ID = Long.toString(Long.MAX_VALUE);
+
+    private final WarmUpProperties properties;
+    private final Environment environment;
+    private final List<HikariDataSource> connectionPools;
+
+    public WarmUpRunner(WarmUpProperties properties, Environment environment, List<HikariDataSource> connectionPools) {
+        this.properties = properties;
+        this.environment = environment;
+        this.connectionPools = connectionPools;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            return;
+        }
+        log.info("Прогрев приложения iterations={} concurrency={}", properties.iterations(), properties.concurrency());
+        long startedAt = System.nanoTime();
+        connectionPools.forEach(WarmUpRunner::fillConnectionPool);
+        AtomicLong failures = new AtomicLong();
+        URI baseUri = URI.create("http://localhost:" + port);
+        try (HttpClient client = HttpClient.newHttpClient();
+             ExecutorService executor = Executors.newFixedThreadPool(properties.concurrency())) {
+            for (int i = 0; i < properties.iterations(); i++) {
+                int iteration = i;
+                executor.execute(() -> requests(baseUri, iteration).forEach(request -> send(client, request, failures)));
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(properties.timeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+                log.warn("Прогрев не уложился в {}, приложение стартует без полного прогрева", properties.timeout());
+            }
+        }
+        log.info("Прогрев завершен за {} мс, ошибок {}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), failures.get());
+    }
+
+    // Hikari добирает соединения до minimum-idle в фоне; здесь их открытие ждём до readiness
+    private static void fillConnectionPool(HikariDataSource pool) {
+        List<Connection> connections = new ArrayList<>(pool.getMinimumIdle());
+        try {
+            while (connections.size() < pool.getMinimumIdle()) {
+                connections.add(pool.getConnection());
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось заполнить пул соединений {}: {}", pool.getPoolName(), e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Ошибка возврата соединения в пул {}", pool.getPoolName(), e);
+                }
+            }
+        }
+    }
+
+    // Свой X-Client-Id на каждую итерацию: прогрев не должен упираться в лимит на клиента.
+    // Заголовок учитывается, потому что запросы идут с loopback, входящего в userapi.admission.trusted-proxies
+    private static List<HttpRequest> requests(URI baseUri, int iteration) {
+        String id = Integer.toString(iteration % 100 + 1);
+        String clientId = "warm-up-" + iteration;
+        return Stream.of(
+                        get(baseUri, USERS + "/" + id),
+                        get(baseUri, USERS + "/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"0\""),
+                        get(baseUri, USERS + "?limit=20"),
+                        get(baseUri, USERS + "?limit=20&sort=-created_at&minAge=18"),
+                        get(baseUri, USERS + "?ids=1,2,3," + id),
+                        get(baseUri, USERS + "?limit=20").header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE),
+                        get(baseUri, USERS + "/stats"),
+                        json(baseUri, USERS + "/lookup", "POST", "{\"ids\":[1,2,3," + id + "]}"),
+                        // 400 и 404: валидация и обработчик ошибок без изменения данных
+                        json(baseUri, USERS, "POST", "{\"name\":\"\",\"email\":\"warm-up\",\"age\":-1}"),
+                        json(baseUri, USERS + "/" + MISSING_ID, "PATCH", "{\"age\":30}"))
+                .map(request -> request.header("X-Client-Id", clientId).build())
+                .toList();
+    }
+
+    private static void send(HttpClient client, HttpRequest request, AtomicLong failures) {
+        try {
+            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 500) {
+                failures.incrementAndGet();
+            }
+        } catch (IOException e) {
+            failures.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static HttpRequest.Builder get(URI baseUri, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET();
+    }
+
+    private static HttpRequest.Builder json(URI baseUri, String path, String method, String body) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+}
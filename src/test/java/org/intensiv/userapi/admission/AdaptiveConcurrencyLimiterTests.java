@@ -0,0 +1,80 @@
+package org.intensiv.userapi.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTests {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    @DisplayName("Should reject requests above the current limit")
+    void tryAcquire_AboveLimit_ShouldReject() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.inFlight());
+
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should grow limit while latency is stable and the limit is used")
+    void release_WithStableLatency_ShouldGrowLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 50);
+
+        for (int i = 0; i < 100; i++) {
+            saturateAndRelease(limiter, FAST);
+        }
+
+        assertTrue(limiter.limit() > 4, "limit=" + limiter.limit());
+    }
+
+    @Test
+    @DisplayName("Should shrink limit when latency grows above the long-term average")
+    void release_WithGrowingLatency_ShouldShrinkLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 2, 50);
+        for (int i = 0; i < 50; i++) {
+            saturateAndRelease(limiter, FAST);
+        }
+        int limitBeforeOverload = limiter.limit();
+
+        for (int i = 0; i < 50; i++) {
+            saturateAndRelease(limiter, SLOW);
+        }
+
+        assertTrue(limiter.limit() < limitBeforeOverload,
+                "before=" + limitBeforeOverload + " after=" + limiter.limit());
+    }
+
+    @Test
+    @DisplayName("Should back off on dropped requests but not below the minimum")
+    void release_Dropped_ShouldBackOffToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 3, 10);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(SLOW, true);
+        }
+
+        assertEquals(3, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    private static void saturateAndRelease(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.intensiv.userapi.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTests {
+    @Test
+    @DisplayName("Should allow burst and then report time until the next token")
+    void tryConsume_AfterBurst_ShouldReturnWaitTime() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        long wait = bucket.tryConsume(0);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait, TimeUnit.MICROSECONDS.toNanos(1));
+        assertEquals(0, bucket.tryConsume(TimeUnit.MILLISECONDS.toNanos(101)));
+    }
+
+    @Test
+    @DisplayName("Should not accumulate more tokens than capacity")
+    void tryConsume_AfterIdle_ShouldCapAtCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        long later = TimeUnit.SECONDS.toNanos(60);
+
+        assertEquals(0, bucket.tryConsume(later));
+        assertEquals(0, bucket.tryConsume(later));
+        assertTrue(bucket.tryConsume(later) > 0);
+    }
+}
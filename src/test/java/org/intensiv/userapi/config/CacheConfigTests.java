@@ -0,0 +1,243 @@
+package org.intensiv.userapi.config;
+
+import org.intensiv.userapi.datasource.ReadConsistencyContext;
+import org.intensiv.userapi.dto.request.UpdateUserRequestDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.entity.User;
+import org.intensiv.userapi.mapper.UserMapper;
+import org.intensiv.userapi.repository.UserOutboxRepository;
+import org.intensiv.userapi.repository.UserRepository;
+import org.intensiv.userapi.repository.UserUpdateResult;
+import org.intensiv.userapi.service.UserService;
+import org.intensiv.userapi.service.UserStatsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// UserService с замоканными репозиториями поверх настоящего CacheConfig и менеджера транзакций
+// без ресурсов: проверяется, когда именно TransactionAwareCacheManagerProxy сбрасывает запись
+class CacheConfigTests {
+    private static final Long USER_ID = 1L;
+    private static final UpdateUserRequestDto UPDATE = new UpdateUserRequestDto("Роман", null, null);
+    private static final UserResponseDto CACHED =
+            new UserResponseDto(USER_ID, "Роман", "krasikov.roman@gmail.com", 1L, null);
+    private static final UserResponseDto UPDATED =
+            new UserResponseDto(USER_ID, "Роман", "krasikov.roman@gmail.com", 2L, null);
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(CacheConfig.class, ServiceConfig.class);
+
+    @Test
+    @DisplayName("Should serve a repeated read from the cache")
+    void getUser_Twice_ShouldQueryRepositoryOnce() {
+        contextRunner.run(context -> {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            UserService userService = context.getBean(UserService.class);
+
+            UserResponseDto first = userService.getUser(USER_ID);
+            UserResponseDto second = userService.getUser(USER_ID);
+
+            assertSame(first, second);
+            assertInstanceOf(TransactionAwareCacheManagerProxy.class, context.getBean(CacheManager.class));
+            verify(userRepository, times(1)).findById(USER_ID);
+        });
+    }
+
+    @Test
+    @DisplayName("Should bypass the cache when the client requires a read-after LSN")
+    void getUser_WithRequiredLsn_ShouldBypassCache() {
+        contextRunner.run(context -> {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            UserService userService = context.getBean(UserService.class);
+            CacheManager cacheManager = context.getBean(CacheManager.class);
+            userService.getUser(USER_ID);
+
+            ReadConsistencyContext.requireLsn(42L);
+            try {
+                userService.getUser(USER_ID);
+            } finally {
+                ReadConsistencyContext.clear();
+            }
+            cacheManager.getCache(CacheConfig.USERS_CACHE).clear();
+            ReadConsistencyContext.requireLsn(42L);
+            try {
+                userService.getUser(USER_ID);
+            } finally {
+                ReadConsistencyContext.clear();
+            }
+
+            assertNull(cacheManager.getCache(CacheConfig.USERS_CACHE).get(USER_ID));
+            verify(userRepository, times(3)).findById(USER_ID);
+        });
+    }
+
+    @Test
+    @DisplayName("Should replace the cached user with the updated one only after the update commits")
+    void updateUser_ShouldPutUpdatedUserAfterCommit() {
+        contextRunner.run(context -> {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            UserService userService = context.getBean(UserService.class);
+            Cache cache = context.getBean(CacheManager.class).getCache(CacheConfig.USERS_CACHE);
+            userService.getUser(USER_ID);
+            when(userRepository.updateNonNullFields(eq(USER_ID), any(), any(), any(), any()))
+                    .thenReturn(Optional.of(new UserUpdateResult(user(), 26)));
+
+            new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+                userService.updateUser(USER_ID, UPDATE, null);
+                assertEquals(CACHED, cache.get(USER_ID).get());
+            });
+
+            assertEquals(UPDATED, cache.get(USER_ID).get());
+            assertEquals(UPDATED, userService.getUser(USER_ID));
+            verify(userRepository, times(1)).findById(USER_ID);
+        });
+    }
+
+    @Test
+    @DisplayName("Should not replace a newer cached user with an older version loaded concurrently")
+    void put_WithOlderVersion_ShouldKeepNewerUser() {
+        contextRunner.run(context -> {
+            Cache cache = context.getBean(CacheManager.class).getCache(CacheConfig.USERS_CACHE);
+
+            cache.put(USER_ID, UPDATED);
+            cache.put(USER_ID, CACHED);
+
+            assertEquals(UPDATED, cache.get(USER_ID).get());
+        });
+    }
+
+    @Test
+    @DisplayName("Should not cache a user loaded concurrently with its deletion")
+    void put_AfterEvict_ShouldNotCacheDeletedUser() {
+        contextRunner.run(context -> {
+            Cache cache = context.getBean(CacheManager.class).getCache(CacheConfig.USERS_CACHE);
+            cache.put(USER_ID, CACHED);
+
+            cache.evict(USER_ID);
+            cache.put(USER_ID, CACHED);
+
+            assertNull(cache.get(USER_ID));
+        });
+    }
+
+    @Test
+    @DisplayName("Should keep the cached user when the surrounding transaction rolls back")
+    void updateUser_WhenRolledBack_ShouldKeepCachedUser() {
+        contextRunner.run(context -> {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            UserService userService = context.getBean(UserService.class);
+            CacheManager cacheManager = context.getBean(CacheManager.class);
+            userService.getUser(USER_ID);
+            when(userRepository.updateNonNullFields(eq(USER_ID), any(), any(), any(), any()))
+                    .thenReturn(Optional.of(new UserUpdateResult(user(), 26)));
+
+            new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+                userService.updateUser(USER_ID, UPDATE, null);
+                status.setRollbackOnly();
+            });
+
+            assertNotNull(cacheManager.getCache(CacheConfig.USERS_CACHE).get(USER_ID));
+            userService.getUser(USER_ID);
+            verify(userRepository, times(1)).findById(USER_ID);
+        });
+    }
+
+    @Test
+    @DisplayName("Should read through to the repository when the cache is disabled")
+    void getUser_WithCacheDisabled_ShouldQueryRepositoryEveryTime() {
+        contextRunner.withPropertyValues("userapi.cache.enabled=false").run(context -> {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            UserService userService = context.getBean(UserService.class);
+
+            userService.getUser(USER_ID);
+            userService.getUser(USER_ID);
+
+            assertFalse(context.containsBean("cacheManager"));
+            verify(userRepository, times(2)).findById(USER_ID);
+        });
+    }
+
+    private static User user() {
+        User user = new User("Роман", "krasikov.roman@gmail.com", 26);
+        user.setId(USER_ID);
+        return user;
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableConfigurationProperties({PaginationProperties.class, MultiGetProperties.class, BatchCreateProperties.class})
+    static class ServiceConfig {
+        @Bean
+        UserRepository userRepository() {
+            UserRepository userRepository = mock(UserRepository.class);
+            when(userRepository.findById(USER_ID)).thenAnswer(call -> Optional.of(user()));
+            return userRepository;
+        }
+
+        @Bean
+        UserMapper userMapper() {
+            UserMapper userMapper = mock(UserMapper.class);
+            when(userMapper.toUserResponseDto(any())).thenReturn(CACHED, UPDATED);
+            return userMapper;
+        }
+
+        @Bean
+        UserService userService(UserRepository userRepository, UserMapper userMapper,
+                                PaginationProperties paginationProperties, MultiGetProperties multiGetProperties,
+                                BatchCreateProperties batchCreateProperties,
+                                PlatformTransactionManager transactionManager) {
+            return new UserService(userRepository, mock(UserOutboxRepository.class), mock(UserStatsService.class),
+                    userMapper, paginationProperties, multiGetProperties, batchCreateProperties,
+                    new TransactionTemplate(transactionManager));
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new ResourcelessTransactionManager();
+        }
+    }
+
+    static class ResourcelessTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.intensiv.userapi.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Имена из docs/metrics.md, на которые завязаны алерты; статистика Hibernate включается профилем metrics
+@Testcontainers
+@ActiveProfiles("metrics")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "userapi.warm-up.enabled=false")
+public class PrometheusEndpointIT {
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> pgContainer = new PostgreSQLContainer<>("postgres:16.3")
+            .withDatabaseName("test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    @DisplayName("Should expose service timer, Hikari pool and Hibernate meters")
+    void prometheus_AfterRequests_ShouldExposeDocumentedMeters() {
+        ResponseEntity<Map> created = restTemplate.postForEntity("/userapi/users",
+                Map.of("name", "Metrics User", "email", "metrics@mail.com", "age", 30), Map.class);
+        restTemplate.getForEntity("/userapi/users/" + created.getBody().get("id"), Map.class);
+
+        ResponseEntity<String> prometheus = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertEquals(200, prometheus.getStatusCode().value());
+        String body = prometheus.getBody();
+        assertTrue(body.contains("userapi_service_seconds_count{"));
+        assertTrue(body.contains("method=\"createUser\""));
+        assertTrue(body.contains("userapi_service_seconds_bucket{"));
+        assertTrue(body.contains("hikaricp_connections_active{"));
+        assertTrue(body.contains("hikaricp_connections_acquire_seconds_bucket{"));
+        assertTrue(body.contains("hibernate_statements_total{"));
+        assertTrue(body.contains("application=\"userapi\""));
+    }
+}
@@ -0,0 +1,655 @@
+package org.intensiv.userapi.controller;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.intensiv.userapi.dto.request.CreateUserRequestDto;
+import org.intensiv.userapi.dto.request.UpdateUserRequestDto;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.request.UserLookupRequestDto;
+import org.intensiv.userapi.dto.response.UserLookupResponseDto;
+import org.intensiv.userapi.dto.response.UserPageResponseDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.exception.DuplicateEmailException;
+import org.intensiv.userapi.exception.InvalidCursorException;
+import org.intensiv.userapi.exception.PreconditionFailedException;
+import org.intensiv.userapi.exception.TooManyIdsException;
+import org.intensiv.userapi.exception.UserNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+// Общий контракт /userapi/users: запускается и против UserController, и против UserReactiveController
+// модуля userapi-reactive. Сценарии задаются на синхронном UserOperations, а наследник связывает с ним
+// мок своего сервиса.
+public abstract class UserApiContractTests {
+    protected static final Long USER_ID = 1L;
+    protected static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    protected final UserOperations users = mock(UserOperations.class);
+
+    protected UserResponseDto userResponseDto;
+    protected CreateUserRequestDto createUserRequestDto;
+    protected UpdateUserRequestDto updateUserRequestDto;
+
+    protected abstract WebTestClient webTestClient();
+
+    @BeforeEach
+    void setUpContract() {
+        createUserRequestDto = new CreateUserRequestDto("Роман Красиков", "krasikov.roman@gmail.com", 26);
+        updateUserRequestDto = new UpdateUserRequestDto("Роман Красиков", "krasikov.roman.new@gmail.com", 27);
+        userResponseDto = new UserResponseDto(1L, "Роман Красиков", "krasikov.roman@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Should create user")
+    void createUser_WithValidData_ReturnsUser() {
+        when(users.createUser(any(CreateUserRequestDto.class))).thenReturn(userResponseDto);
+
+        webTestClient().post().uri("/userapi/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createUserRequestDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.name").isEqualTo("Роман Красиков")
+                .jsonPath("$.email").isEqualTo("krasikov.roman@gmail.com");
+
+        verify(users).createUser(any(CreateUserRequestDto.class));
+    }
+
+    @Test
+    @DisplayName("Should create user from CBOR request and respond with CBOR")
+    void createUser_WithCbor_ReturnsCbor() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        when(users.createUser(createUserRequestDto)).thenReturn(userResponseDto);
+
+        byte[] response = webTestClient().post().uri("/userapi/users")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(cborMapper.writeValueAsBytes(createUserRequestDto))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        assertEquals(userResponseDto, cborMapper.readValue(response, UserResponseDto.class));
+        verify(users).createUser(createUserRequestDto);
+    }
+
+    @Test
+    @DisplayName("Should return 400 when creating user with invalid data")
+    void createUser_WithInvalidData_Returns400() {
+        webTestClient().post().uri("/userapi/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequestDto("", "", 20))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Validation failed");
+
+        verify(users, never()).createUser(any(CreateUserRequestDto.class));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when name exceeds the column length")
+    void createUser_WithTooLongName_ReturnsBadRequest() {
+        webTestClient().post().uri("/userapi/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequestDto("a".repeat(300), "long.name@gmail.com", 26))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.errors.name").isEqualTo("Имя не может быть длиннее 255 символов");
+
+        verify(users, never()).createUser(any(CreateUserRequestDto.class));
+    }
+
+    @Test
+    @DisplayName("Should pass email to service in lower case")
+    void createUser_WithMixedCaseEmail_NormalizesEmail() {
+        when(users.createUser(any(CreateUserRequestDto.class))).thenReturn(userResponseDto);
+
+        webTestClient().post().uri("/userapi/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Роман Красиков\",\"email\":\"Krasikov.Roman@Gmail.com\",\"age\":26}")
+                .exchange()
+                .expectStatus().isOk();
+
+        verify(users).createUser(createUserRequestDto);
+    }
+
+    @Test
+    @DisplayName("Should return 409 when email already exists")
+    void createUser_WhenEmailExists_ShouldReturn409() {
+        when(users.createUser(any()))
+                .thenThrow(new DuplicateEmailException("Duplicate email: duplicate@gmail.com"));
+
+        webTestClient().post().uri("/userapi/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequestDto("Роман", "duplicate@gmail.com", 20))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(409)
+                .jsonPath("$.title").isEqualTo("Email already exists")
+                .jsonPath("$.detail").isEqualTo("Duplicate email: duplicate@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Should get user by id")
+    void getUser_WithValidId_ReturnsUser() {
+        when(users.getUser(USER_ID)).thenReturn(userResponseDto);
+
+        webTestClient().get().uri("/userapi/users/{id}", USER_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.name").isEqualTo("Роман Красиков")
+                .jsonPath("$.email").isEqualTo("krasikov.roman@gmail.com");
+
+        verify(users).getUser(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should get user by email")
+    void getUserByEmail_WithValidEmail_ReturnsUser() {
+        when(users.getUserByEmail("krasikov.roman@gmail.com")).thenReturn(userResponseDto);
+
+        webTestClient().get().uri("/userapi/users/by-email?email={email}", "krasikov.roman@gmail.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.email").isEqualTo("krasikov.roman@gmail.com");
+
+        verify(users).getUserByEmail("krasikov.roman@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Should return 400 when getting user by invalid email")
+    void getUserByEmail_WithInvalidEmail_Returns400() {
+        webTestClient().get().uri("/userapi/users/by-email?email={email}", "not-an-email")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users, never()).getUserByEmail(any());
+    }
+
+    @Test
+    @DisplayName("Should get users page as Smile when requested")
+    void getUsers_WithSmileAccept_ReturnsSmile() throws Exception {
+        when(users.getUsers(UserFilterRequestDto.NONE, null, null, null))
+                .thenReturn(new UserPageResponseDto(List.of(userResponseDto), null));
+
+        byte[] response = webTestClient().get().uri("/userapi/users")
+                .accept(APPLICATION_SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(APPLICATION_SMILE)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        assertEquals(new UserPageResponseDto(List.of(userResponseDto), null),
+                new SmileMapper().readValue(response, UserPageResponseDto.class));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when getting user with invalid id")
+    void getUser_WithInvalidId_Returns400() {
+        webTestClient().get().uri("/userapi/users/{id}", 0)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users, never()).getUser(any(Long.class));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when getting non-existent user")
+    void getUser_UserNotFound_Returns404() {
+        when(users.getUser(999L)).thenThrow(new UserNotFoundException("User not found"));
+
+        webTestClient().get().uri("/userapi/users/{id}", 999L)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.title").isEqualTo("User not found")
+                .jsonPath("$.detail").isEqualTo("User not found");
+    }
+
+    @Test
+    @DisplayName("Should return ETag and Last-Modified for user")
+    void getUser_ReturnsValidators() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 1, 12, 30);
+        when(users.getUser(USER_ID)).thenReturn(
+                new UserResponseDto(1L, "Роман Красиков", "krasikov.roman@gmail.com", 3L, updatedAt));
+
+        webTestClient().get().uri("/userapi/users/{id}", USER_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .expectHeader().lastModified(updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli())
+                .expectBody()
+                .jsonPath("$.version").doesNotExist()
+                .jsonPath("$.updatedAt").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should return representation-specific ETag for CBOR")
+    void getUser_WithCborAccept_ReturnsCborETag() {
+        when(users.getUser(USER_ID)).thenReturn(
+                new UserResponseDto(1L, "Роман Красиков", "krasikov.roman@gmail.com", 3L, LocalDateTime.now()));
+
+        webTestClient().get().uri("/userapi/users/{id}", USER_ID)
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3-cbor\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    @DisplayName("Should not return 304 for JSON ETag when CBOR is requested")
+    void getUser_WhenJsonETagSentForCbor_ReturnsUser() {
+        when(users.getUser(USER_ID)).thenReturn(
+                new UserResponseDto(1L, "Роман Красиков", "krasikov.roman@gmail.com", 3L, LocalDateTime.now()));
+
+        webTestClient().get().uri("/userapi/users/{id}", USER_ID)
+                .accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3-cbor\"");
+    }
+
+    @Test
+    @DisplayName("Should return 304 when ETag matches")
+    void getUser_WhenETagMatches_Returns304() {
+        when(users.getUser(USER_ID)).thenReturn(
+                new UserResponseDto(1L, "Роман Красиков", "krasikov.roman@gmail.com", 3L, LocalDateTime.now()));
+
+        webTestClient().get().uri("/userapi/users/{id}", USER_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .expectBody().isEmpty();
+
+        verify(users).getUser(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should return user when ETag does not match")
+    void getUser_WhenETagDoesNotMatch_ReturnsUser() {
+        when(users.getUser(USER_ID)).thenReturn(
+                new UserResponseDto(1L, "Роман Красиков", "krasikov.roman@gmail.com", 4L, LocalDateTime.now()));
+
+        webTestClient().get().uri("/userapi/users/{id}", USER_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1);
+
+        verify(users).getUser(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should get page of users")
+    void getUsers_ReturnsUserPage() {
+        List<UserResponseDto> items = List.of(
+                userResponseDto,
+                new UserResponseDto(2L, "Красиков Роман", "roman.krasikov@gmail.com")
+        );
+        when(users.getUsers(eq(UserFilterRequestDto.NONE), isNull(), isNull(), isNull()))
+                .thenReturn(new UserPageResponseDto(items, "Mg"));
+
+        webTestClient().get().uri("/userapi/users")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(2)
+                .jsonPath("$.items[0].id").isEqualTo(1)
+                .jsonPath("$.items[0].name").isEqualTo("Роман Красиков")
+                .jsonPath("$.items[0].email").isEqualTo("krasikov.roman@gmail.com")
+                .jsonPath("$.items[1].id").isEqualTo(2)
+                .jsonPath("$.items[1].name").isEqualTo("Красиков Роман")
+                .jsonPath("$.items[1].email").isEqualTo("roman.krasikov@gmail.com")
+                .jsonPath("$.nextCursor").isEqualTo("Mg");
+        verify(users).getUsers(UserFilterRequestDto.NONE, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Should pass cursor and limit to service")
+    void getUsers_WithCursorAndLimit_PassesThem() {
+        when(users.getUsers(UserFilterRequestDto.NONE, null, "Mg", 10))
+                .thenReturn(new UserPageResponseDto(List.of(), null));
+
+        webTestClient().get().uri("/userapi/users?after=Mg&limit=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(0);
+        verify(users).getUsers(UserFilterRequestDto.NONE, null, "Mg", 10);
+    }
+
+    @Test
+    @DisplayName("Should pass filters and sort to service")
+    void getUsers_WithFiltersAndSort_PassesThem() {
+        UserFilterRequestDto filter = new UserFilterRequestDto(20, 30,
+                LocalDateTime.of(2024, 1, 1, 0, 0), null, "krasikov.roman@gmail.com");
+        when(users.getUsers(filter, "-created_at", null, null))
+                .thenReturn(new UserPageResponseDto(List.of(userResponseDto), null));
+
+        webTestClient().get().uri(uri -> uri.path("/userapi/users")
+                        .queryParam("minAge", "20")
+                        .queryParam("maxAge", "30")
+                        .queryParam("createdFrom", "2024-01-01T00:00:00")
+                        .queryParam("email", "krasikov.roman@gmail.com")
+                        .queryParam("sort", "-created_at")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo(1);
+        verify(users).getUsers(filter, "-created_at", null, null);
+    }
+
+    @Test
+    @DisplayName("Should return 400 when sort field is not supported")
+    void getUsers_WithUnsupportedSort_Returns400() {
+        webTestClient().get().uri("/userapi/users?sort=email")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users, never()).getUsers(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when age filter is out of range")
+    void getUsers_WithInvalidAgeFilter_Returns400() {
+        webTestClient().get().uri("/userapi/users?minAge=-1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users, never()).getUsers(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when limit is not positive")
+    void getUsers_WithInvalidLimit_Returns400() {
+        webTestClient().get().uri("/userapi/users?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users, never()).getUsers(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when cursor is malformed")
+    void getUsers_WithInvalidCursor_Returns400() {
+        when(users.getUsers(any(), isNull(), eq("bad"), isNull()))
+                .thenThrow(new InvalidCursorException("Некорректный курсор: bad"));
+
+        webTestClient().get().uri("/userapi/users?after=bad")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Некорректный курсор: bad");
+    }
+
+    @Test
+    @DisplayName("Should get users by ids")
+    void getUsersByIds_ReturnsUsersAndMissingIds() {
+        when(users.getUsersByIds(List.of(1L, 7L)))
+                .thenReturn(new UserLookupResponseDto(List.of(userResponseDto), List.of(7L)));
+
+        webTestClient().get().uri("/userapi/users?ids=1,7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.items[0].id").isEqualTo(1)
+                .jsonPath("$.missingIds[0]").isEqualTo(7);
+        verify(users, never()).getUsers(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should look up users by ids from request body")
+    void lookupUsers_ReturnsUsersAndMissingIds() {
+        when(users.getUsersByIds(List.of(1L, 7L)))
+                .thenReturn(new UserLookupResponseDto(List.of(userResponseDto), List.of(7L)));
+
+        webTestClient().post().uri("/userapi/users/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserLookupRequestDto(List.of(1L, 7L)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo(1)
+                .jsonPath("$.missingIds[0]").isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should return 400 when too many ids are requested")
+    void getUsersByIds_WhenTooManyIds_Returns400() {
+        when(users.getUsersByIds(anyList()))
+                .thenThrow(new TooManyIdsException("Нельзя запросить больше 500 пользователей за раз"));
+
+        webTestClient().get().uri("/userapi/users?ids=1,2")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Too many ids");
+    }
+
+    @Test
+    @DisplayName("Should return 400 when lookup ids are empty")
+    void lookupUsers_WithEmptyIds_Returns400() {
+        webTestClient().post().uri("/userapi/users/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserLookupRequestDto(List.of()))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users, never()).getUsersByIds(anyList());
+    }
+
+    @Test
+    @DisplayName("Should update user")
+    void updateUser_WithValidIdAndData_ReturnsUpdatedUser() {
+        UserResponseDto updatedUser = new UserResponseDto(1L, "Роман Красиков", "krasikov.roman.new@gmail.com");
+        when(users.updateUser(eq(USER_ID), any(UpdateUserRequestDto.class), isNull())).thenReturn(updatedUser);
+
+        webTestClient().patch().uri("/userapi/users/{id}", USER_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updateUserRequestDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.name").isEqualTo("Роман Красиков")
+                .jsonPath("$.email").isEqualTo("krasikov.roman.new@gmail.com");
+        verify(users).updateUser(eq(USER_ID), any(UpdateUserRequestDto.class), isNull());
+    }
+
+    @Test
+    @DisplayName("Should pass If-Match version to service")
+    void updateUser_WithIfMatch_PassesExpectedVersion() {
+        when(users.updateUser(eq(USER_ID), any(UpdateUserRequestDto.class), eq(3L))).thenReturn(
+                new UserResponseDto(1L, "Роман Красиков", "krasikov.roman.new@gmail.com", 4L, LocalDateTime.now()));
+
+        webTestClient().patch().uri("/userapi/users/{id}", USER_ID)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updateUserRequestDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"");
+        verify(users).updateUser(eq(USER_ID), any(UpdateUserRequestDto.class), eq(3L));
+    }
+
+    @Test
+    @DisplayName("Should accept ETag of any representation in If-Match")
+    void updateUser_WithSmileIfMatch_PassesExpectedVersion() {
+        when(users.updateUser(eq(USER_ID), any(UpdateUserRequestDto.class), eq(3L))).thenReturn(
+                new UserResponseDto(1L, "Роман Красиков", "krasikov.roman.new@gmail.com", 4L, LocalDateTime.now()));
+
+        webTestClient().patch().uri("/userapi/users/{id}", USER_ID)
+                .header(HttpHeaders.IF_MATCH, "\"3-smile\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updateUserRequestDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"");
+        verify(users).updateUser(eq(USER_ID), any(UpdateUserRequestDto.class), eq(3L));
+    }
+
+    @Test
+    @DisplayName("Should return 412 when version does not match")
+    void updateUser_WhenVersionDoesNotMatch_Returns412() {
+        when(users.updateUser(eq(USER_ID), any(UpdateUserRequestDto.class), eq(3L)))
+                .thenThrow(new PreconditionFailedException("Версия пользователя id:1 не совпадает с 3"));
+
+        webTestClient().patch().uri("/userapi/users/{id}", USER_ID)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updateUserRequestDto)
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(412)
+                .jsonPath("$.title").isEqualTo("Precondition failed");
+    }
+
+    @Test
+    @DisplayName("Should return 412 when If-Match is not a version ETag")
+    void updateUser_WithMalformedIfMatch_Returns412() {
+        webTestClient().patch().uri("/userapi/users/{id}", USER_ID)
+                .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updateUserRequestDto)
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users, never()).updateUser(any(Long.class), any(UpdateUserRequestDto.class), any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when updating user with invalid id")
+    void updateUser_WithInvalidId_Returns400() {
+        webTestClient().patch().uri("/userapi/users/{id}", 0)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updateUserRequestDto)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users, never()).updateUser(any(Long.class), any(UpdateUserRequestDto.class), any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when updating user with invalid data")
+    void updateUser_InvalidData_Returns400() {
+        webTestClient().patch().uri("/userapi/users/{id}", USER_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateUserRequestDto("", "krasikov@gmail.com", 20))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users, never()).updateUser(any(Long.class), any(UpdateUserRequestDto.class), any());
+    }
+
+    @Test
+    @DisplayName("Should return 409 when updating with already existing email")
+    void updateUser_WithExistingEmail_Returns409() {
+        when(users.updateUser(eq(USER_ID), any(UpdateUserRequestDto.class), isNull()))
+                .thenThrow(new DuplicateEmailException("User with email already exists"));
+
+        webTestClient().patch().uri("/userapi/users/{id}", USER_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updateUserRequestDto)
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users).updateUser(eq(USER_ID), any(UpdateUserRequestDto.class), isNull());
+    }
+
+    @Test
+    @DisplayName("Should delete user and return 204")
+    void deleteUser_WithValidId_Returns204() {
+        doNothing().when(users).deleteUser(USER_ID);
+
+        webTestClient().delete().uri("/userapi/users/{id}", USER_ID)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(users).deleteUser(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should return 400 when deleting user with invalid id")
+    void deleteUser_InvalidId_Returns400() {
+        webTestClient().delete().uri("/userapi/users/{id}", 0)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        verify(users, never()).deleteUser(any(Long.class));
+    }
+
+    protected interface UserOperations {
+        UserResponseDto createUser(CreateUserRequestDto requestDto);
+
+        UserResponseDto getUser(Long id);
+
+        UserResponseDto getUserByEmail(String email);
+
+        UserLookupResponseDto getUsersByIds(List<Long> ids);
+
+        UserPageResponseDto getUsers(UserFilterRequestDto filter, String sort, String after, Integer limit);
+
+        UserResponseDto updateUser(Long id, UpdateUserRequestDto updatedUserDto, Long expectedVersion);
+
+        void deleteUser(Long id);
+    }
+}
@@ -0,0 +1,84 @@
+package org.intensiv.userapi.controller;
+
+import org.intensiv.userapi.dto.response.UserChangeDto;
+import org.intensiv.userapi.dto.response.UserChangePageResponseDto;
+import org.intensiv.userapi.entity.UserChangeType;
+import org.intensiv.userapi.exception.InvalidCursorException;
+import org.intensiv.userapi.service.UserChangeFeedService;
+import org.intensiv.userapi.service.UserChangeStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserChangeController.class)
+public class UserChangeControllerTests {
+    @MockitoBean
+    private UserChangeFeedService userChangeFeedService;
+    @MockitoBean
+    private UserChangeStream userChangeStream;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should return page of user changes")
+    void getChanges_ShouldReturnEventsAndNextCursor() throws Exception {
+        UserChangeDto change = new UserChangeDto("MTAwOjE", 1L, UserChangeType.CREATED, "Роман Красиков",
+                "krasikov.roman@gmail.com", 26, 0L, LocalDateTime.of(2025, 1, 1, 12, 0));
+        when(userChangeFeedService.getChanges("MDow", 50))
+                .thenReturn(new UserChangePageResponseDto(List.of(change), "MTAwOjE"));
+
+        mockMvc.perform(get("/userapi/users/changes").param("since", "MDow").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.events[0].userId").value(1L))
+                .andExpect(jsonPath("$.events[0].type").value("CREATED"))
+                .andExpect(jsonPath("$.events[0].cursor").value("MTAwOjE"))
+                .andExpect(jsonPath("$.nextCursor").value("MTAwOjE"));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for invalid change cursor")
+    void getChanges_WithInvalidCursor_ReturnsBadRequest() throws Exception {
+        when(userChangeFeedService.getChanges("broken", null))
+                .thenThrow(new InvalidCursorException("Некорректный курсор: broken"));
+
+        mockMvc.perform(get("/userapi/users/changes").param("since", "broken"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Invalid cursor"));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for non-positive limit")
+    void getChanges_WithZeroLimit_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/userapi/users/changes").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userChangeFeedService);
+    }
+
+    @Test
+    @DisplayName("Should resume stream from Last-Event-ID header")
+    void streamChanges_WithLastEventId_ResumesFromHeader() throws Exception {
+        when(userChangeStream.subscribe("MTAwOjE")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/userapi/users/changes/stream")
+                        .param("since", "MDow")
+                        .header("Last-Event-ID", "MTAwOjE")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(userChangeStream).subscribe("MTAwOjE");
+    }
+}
@@ -2,10 +2,10 @@ package org.intensiv.userapi.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.intensiv.userapi.dto.request.CreateUserRequestDto;
-import org.intensiv.userapi.dto.request.UpdateUserRequestDto;
-import org.intensiv.userapi.dto.response.UserResponseDto;
-import org.intensiv.userapi.exception.DuplicateEmailException;
-import org.intensiv.userapi.exception.UserNotFoundException;
+import org.intensiv.userapi.dto.response.BatchCreateItemResultDto;
+import org.intensiv.userapi.dto.response.ImportResultDto;
+import org.intensiv.userapi.service.ImportFormat;
+import org.intensiv.userapi.service.UserImportService;
 import org.intensiv.userapi.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,213 +15,146 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+import org.springframework.transaction.CannotCreateTransactionException;
 
-import java.util.Arrays;
+import java.io.InputStream;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+// Общие эндпоинты проверяет UserApiContractTests; здесь только пакетное создание и импорт
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 @WebMvcTest(UserController.class)
-public class UserControllerTests {
-    private static final Long USER_ID = 1L;
+public class UserControllerTests extends UserApiContractTests {
     @MockitoBean
     private UserService userService;
+    @MockitoBean
+    private UserImportService userImportService;
     @Autowired
     private MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
 
-    private UserResponseDto userResponseDto;
-    private CreateUserRequestDto createUserRequestDto;
-    private UpdateUserRequestDto updateUserRequestDto;
+    @Override
+    protected WebTestClient webTestClient() {
+        return MockMvcWebTestClient.bindTo(mockMvc).build();
+    }
 
     @BeforeEach
     void setUp() {
-        createUserRequestDto = new CreateUserRequestDto("Роман Красиков", "krasikov.roman@gmail.com", 26);
-        updateUserRequestDto = new UpdateUserRequestDto("Роман Красиков", "krasikov.roman.new@gmail.com", 27);
-        userResponseDto = new UserResponseDto(1L, "Роман Красиков", "krasikov.roman@gmail.com");
+        when(userService.createUser(any())).thenAnswer(call -> users.createUser(call.getArgument(0)));
+        when(userService.getUser(any())).thenAnswer(call -> users.getUser(call.getArgument(0)));
+        when(userService.getUserByEmail(any())).thenAnswer(call -> users.getUserByEmail(call.getArgument(0)));
+        when(userService.getUsersByIds(any())).thenAnswer(call -> users.getUsersByIds(call.getArgument(0)));
+        when(userService.getUsers(any(), any(), any(), any())).thenAnswer(call -> users.getUsers(
+                call.getArgument(0), call.getArgument(1), call.getArgument(2), call.getArgument(3)));
+        when(userService.updateUser(any(), any(), any())).thenAnswer(call -> users.updateUser(
+                call.getArgument(0), call.getArgument(1), call.getArgument(2)));
+        doAnswer(call -> {
+            users.deleteUser(call.getArgument(0));
+            return null;
+        }).when(userService).deleteUser(any());
     }
 
     @Test
-    @DisplayName("Should create user")
-    void createUser_WithValidData_ReturnsUser() throws Exception {
-        when(userService.createUser(any(CreateUserRequestDto.class))).thenReturn(userResponseDto);
-
-        mockMvc.perform(post("/userapi/users")
+    @DisplayName("Should create users in batch and report status per item")
+    void createUsers_WithValidData_ReturnsItemResults() throws Exception {
+        CreateUserRequestDto duplicate = new CreateUserRequestDto("Роман", "duplicate@gmail.com", 20);
+        when(userService.createUsers(anyList())).thenReturn(List.of(
+                BatchCreateItemResultDto.created(0, userResponseDto),
+                BatchCreateItemResultDto.conflict(1, "Пользователь с email duplicate@gmail.com уже существует")
+        ));
+
+        mockMvc.perform(post("/userapi/users/batch")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(createUserRequestDto)))
+                        .content(objectMapper.writeValueAsString(List.of(createUserRequestDto, duplicate))))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.id").value(1L))
-                .andExpect(jsonPath("$.name").value("Роман Красиков"))
-                .andExpect(jsonPath("$.email").value("krasikov.roman@gmail.com"));
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].user.id").value(1L))
+                .andExpect(jsonPath("$[1].status").value("CONFLICT"))
+                .andExpect(jsonPath("$[1].index").value(1));
 
-        verify(userService).createUser(any(CreateUserRequestDto.class));
+        verify(userService).createUsers(List.of(createUserRequestDto, duplicate));
     }
 
     @Test
-    @DisplayName("Should return 400 when creating user with invalid data")
-    void createUser_WithInvalidData_Returns400() throws Exception {
+    @DisplayName("Should return 400 when batch contains invalid item")
+    void createUsers_WithInvalidItem_Returns400() throws Exception {
         CreateUserRequestDto invalidDto = new CreateUserRequestDto("", "", 20);
 
-        mockMvc.perform(post("/userapi/users")
+        mockMvc.perform(post("/userapi/users/batch")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(invalidDto)))
-                .andExpect(status().isBadRequest());
+                        .content(objectMapper.writeValueAsString(List.of(createUserRequestDto, invalidDto))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
 
-        verify(userService, never()).createUser(any(CreateUserRequestDto.class));
+        verify(userService, never()).createUsers(anyList());
     }
 
     @Test
-    @DisplayName("Should return 409 when email already exists")
-    void createUser_WhenEmailExists_ShouldReturn409() throws Exception {
-        CreateUserRequestDto request = new CreateUserRequestDto("Роман", "duplicate@gmail.com", 20);
-
-        when(userService.createUser(any())).thenThrow(new DuplicateEmailException("Duplicate email: duplicate@gmail.com"));
-
-        mockMvc.perform(post("/userapi/users")
+    @DisplayName("Should return 400 when batch is empty")
+    void createUsers_WithEmptyBatch_Returns400() throws Exception {
+        mockMvc.perform(post("/userapi/users/batch")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isConflict())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.message").value("Duplicate email: duplicate@gmail.com"));
-    }
-
-    @Test
-    @DisplayName("Should get user by id")
-    void getUser_WithValidId_ReturnsUser() throws Exception {
-        when(userService.getUser(USER_ID)).thenReturn(userResponseDto);
-
-        mockMvc.perform(get("/userapi/users/{id}", USER_ID))
-                .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.id").value(1L))
-                .andExpect(jsonPath("$.name").value("Роман Красиков"))
-                .andExpect(jsonPath("$.email").value("krasikov.roman@gmail.com"));
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
 
-        verify(userService).getUser(USER_ID);
-    }
-
-    @Test
-    @DisplayName("Should return 400 when getting user with invalid id")
-    void getUser_WithInvalidId_Returns400() throws Exception {
-        mockMvc.perform(get("/userapi/users/{id}", 0))
-                .andExpect(status().isBadRequest());
-
-        verify(userService, never()).getUser(any(Long.class));
-    }
-
-    @Test
-    @DisplayName("Should return 404 when getting non-existent user")
-    void getUser_UserNotFound_Returns404() throws Exception {
-        when(userService.getUser(999L)).thenThrow(new UserNotFoundException("User not found"));
-
-        mockMvc.perform(get("/userapi/users/{id}", 999L))
-                .andExpect(status().isNotFound())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.message").value("User not found"));
-    }
-
-    @Test
-    @DisplayName("Should get all users")
-    void getAllUsers_ReturnsUserList() throws Exception {
-        List<UserResponseDto> users = Arrays.asList(
-                userResponseDto,
-                new UserResponseDto(2L, "Красиков Роман", "roman.krasikov@gmail.com")
-        );
-        when(userService.getAllUsers()).thenReturn(users);
-
-        mockMvc.perform(get("/userapi/users"))
-                .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[0].name").value("Роман Красиков"))
-                .andExpect(jsonPath("$[0].email").value("krasikov.roman@gmail.com"))
-                .andExpect(jsonPath("$[1].id").value(2L))
-                .andExpect(jsonPath("$[1].name").value("Красиков Роман"))
-                .andExpect(jsonPath("$[1].email").value("roman.krasikov@gmail.com"));
-        verify(userService).getAllUsers();
+        verify(userService, never()).createUsers(anyList());
     }
 
     @Test
-    @DisplayName("Should update user")
-    void updateUser_WithValidIdAndData_ReturnsUpdatedUser() throws Exception {
-        UserResponseDto updatedUser = new UserResponseDto(1L, "Роман Красиков", "krasikov.roman.new@gmail.com");
-        when(userService.updateUser(eq(USER_ID), any(UpdateUserRequestDto.class))).thenReturn(updatedUser);
-
-        mockMvc.perform(patch("/userapi/users/{id}", USER_ID)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(updateUserRequestDto)))
+    @DisplayName("Should import users from CSV body")
+    void importUsers_WithCsvBody_ReturnsImportResult() throws Exception {
+        when(userImportService.importUsers(any(InputStream.class), eq(ImportFormat.CSV)))
+                .thenReturn(new ImportResultDto(2, 1, 0));
+
+        mockMvc.perform(post("/userapi/users/import")
+                        .contentType("text/csv")
+                        .content("name,email,age\nIvan,ivan@mail.com,20\nOleg,oleg@mail.com,25\nbroken"))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.id").value(1L))
-                .andExpect(jsonPath("$.name").value("Роман Красиков"))
-                .andExpect(jsonPath("$.email").value("krasikov.roman.new@gmail.com"));
-        verify(userService).updateUser(eq(USER_ID), any(UpdateUserRequestDto.class));
-    }
-
-    @Test
-    @DisplayName("Should return 400 when updating user with invalid id")
-    void updateUser_WithInvalidId_Returns400() throws Exception {
-        mockMvc.perform(patch("/userapi/users/{id}", 0)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(updateUserRequestDto)))
-                .andExpect(status().isBadRequest());
-
-        verify(userService, never()).updateUser(any(Long.class), any(UpdateUserRequestDto.class));
-    }
-
-    @Test
-    @DisplayName("Should return 400 when updating user with invalid data")
-    void updateUser_InvalidData_Returns400() throws Exception {
-        UpdateUserRequestDto invalidDto = new UpdateUserRequestDto("", "krasikov@gmail.com", 20);
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.duplicates").value(0));
 
-        mockMvc.perform(patch("/userapi/users/{id}", USER_ID)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(invalidDto)))
-                .andExpect(status().isBadRequest());
-
-        verify(userService, never()).updateUser(any(Long.class), any(UpdateUserRequestDto.class));
+        verify(userImportService).importUsers(any(InputStream.class), eq(ImportFormat.CSV));
     }
 
     @Test
-    @DisplayName("Should return 409 when updating with already existing email")
-    void updateUser_WithExistingEmail_Returns409() throws Exception {
-        when(userService.updateUser(eq(USER_ID), any(UpdateUserRequestDto.class)))
-                .thenThrow(new DuplicateEmailException("User with email already exists"));
-
-        mockMvc.perform(patch("/userapi/users/{id}", USER_ID)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(updateUserRequestDto)))
-                .andExpect(status().isConflict());
-
-        verify(userService).updateUser(eq(USER_ID), any(UpdateUserRequestDto.class));
-    }
-
-    @Test
-    @DisplayName("Should delete user and return 204")
-    void deleteUser_WithValidId_Returns204() throws Exception {
-        doNothing().when(userService).deleteUser(USER_ID);
-
-        mockMvc.perform(delete("/userapi/users/{id}", USER_ID))
-                .andExpect(status().isNoContent());
+    @DisplayName("Should import users from NDJSON body")
+    void importUsers_WithNdjsonBody_ReturnsImportResult() throws Exception {
+        when(userImportService.importUsers(any(InputStream.class), eq(ImportFormat.NDJSON)))
+                .thenReturn(new ImportResultDto(1, 0, 1));
+
+        mockMvc.perform(post("/userapi/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(createUserRequestDto) + "\n"
+                                + objectMapper.writeValueAsString(createUserRequestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1));
 
-        verify(userService).deleteUser(USER_ID);
+        verify(userImportService).importUsers(any(InputStream.class), eq(ImportFormat.NDJSON));
     }
 
     @Test
-    @DisplayName("Should return 400 when deleting user with invalid id")
-    void deleteUser_InvalidId_Returns400() throws Exception {
-        mockMvc.perform(delete("/userapi/users/{id}", 0))
-                .andExpect(status().isBadRequest());
-
-        verify(userService, never()).deleteUser(any(Long.class));
+    @DisplayName("Should return 503 with Retry-After when no database connection is available")
+    void getUser_WhenNoConnectionAvailable_Returns503() throws Exception {
+        doThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"))
+                .when(userService).getUser(1L);
+
+        mockMvc.perform(get("/userapi/users/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.title").value("Database unavailable"));
     }
 }
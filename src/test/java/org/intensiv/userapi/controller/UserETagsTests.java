@@ -0,0 +1,41 @@
+package org.intensiv.userapi.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class UserETagsTests {
+    @Test
+    @DisplayName("Should use plain version for JSON and suffix for binary formats")
+    void of_ShouldDependOnRepresentation() {
+        assertEquals("\"3\"", UserETags.of(3, List.of()));
+        assertEquals("\"3\"", UserETags.of(3, MediaType.parseMediaTypes("*/*")));
+        assertEquals("\"3-cbor\"", UserETags.of(3, List.of(MediaType.APPLICATION_CBOR)));
+        assertEquals("\"3-smile\"", UserETags.of(3, MediaType.parseMediaTypes("application/x-jackson-smile")));
+    }
+
+    @Test
+    @DisplayName("Should pick representation by quality")
+    void of_ShouldHonourQuality() {
+        assertEquals("\"3-cbor\"", UserETags.of(3,
+                MediaType.parseMediaTypes("application/json;q=0.5, application/cbor")));
+        assertEquals("\"3\"", UserETags.of(3,
+                MediaType.parseMediaTypes("application/cbor;q=0.5, application/json")));
+    }
+
+    @Test
+    @DisplayName("Should read version from strong ETag of any representation")
+    void version_ShouldParseStrongETags() {
+        assertEquals(3L, UserETags.version("\"3\""));
+        assertEquals(3L, UserETags.version("\"3-cbor\""));
+        assertEquals(3L, UserETags.version("\"3-smile\""));
+        assertNull(UserETags.version("W/\"3\""));
+        assertNull(UserETags.version("\"3-xml\""));
+        assertNull(UserETags.version("\"\""));
+    }
+}
@@ -0,0 +1,86 @@
+package org.intensiv.userapi.controller;
+
+import org.intensiv.userapi.exception.ExportLimitExceededException;
+import org.intensiv.userapi.service.ExportFormat;
+import org.intensiv.userapi.service.UserExportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserExportController.class)
+public class UserExportControllerTests {
+    @MockitoBean
+    private UserExportService userExportService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should stream NDJSON export by default and release the permit")
+    void exportUsers_ByDefault_ReturnsNdjson() throws Exception {
+        UserExportService.ExportPermit permit = mock(UserExportService.ExportPermit.class);
+        when(userExportService.acquirePermit()).thenReturn(permit);
+        String ndjson = "{\"id\":1,\"name\":\"Роман\"}\n";
+        when(userExportService.exportUsers(any(OutputStream.class), eq(ExportFormat.NDJSON))).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(ndjson.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        mockMvc.perform(get("/userapi/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\""))
+                .andExpect(content().string(ndjson));
+
+        verify(permit).close();
+    }
+
+    @Test
+    @DisplayName("Should stream CSV export when requested")
+    void exportUsers_WithCsvFormat_ReturnsCsv() throws Exception {
+        mockMvc.perform(get("/userapi/users/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\""));
+
+        verify(userExportService).exportUsers(any(OutputStream.class), eq(ExportFormat.CSV));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for unknown export format")
+    void exportUsers_WithUnknownFormat_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/userapi/users/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userExportService);
+    }
+
+    @Test
+    @DisplayName("Should return 503 with Retry-After when too many exports are running")
+    void exportUsers_OverLimit_ReturnsServiceUnavailable() throws Exception {
+        when(userExportService.acquirePermit())
+                .thenThrow(new ExportLimitExceededException("Уже выполняется максимальное число выгрузок пользователей"));
+
+        mockMvc.perform(get("/userapi/users/export"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "60"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION))
+                .andExpect(jsonPath("$.title").value("Export limit exceeded"));
+
+        verify(userExportService, never()).exportUsers(any(OutputStream.class), any(ExportFormat.class));
+    }
+}
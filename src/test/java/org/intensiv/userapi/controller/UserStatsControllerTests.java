@@ -0,0 +1,60 @@
+package org.intensiv.userapi.controller;
+
+import org.intensiv.userapi.dto.response.AgeBucketDto;
+import org.intensiv.userapi.dto.response.DailySignupsDto;
+import org.intensiv.userapi.dto.response.UserStatsResponseDto;
+import org.intensiv.userapi.service.UserStatsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserStatsController.class)
+public class UserStatsControllerTests {
+    @MockitoBean
+    private UserStatsService userStatsService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should return user statistics without approximate count by default")
+    void getStats_ReturnsStatistics() throws Exception {
+        when(userStatsService.getStats(false)).thenReturn(new UserStatsResponseDto(3, null,
+                List.of(new AgeBucketDto(20, 29, 2), new AgeBucketDto(40, 49, 1)),
+                List.of(new DailySignupsDto(LocalDate.of(2025, 1, 1), 3)),
+                LocalDateTime.of(2025, 1, 1, 12, 0)));
+
+        mockMvc.perform(get("/userapi/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.approximateCount").doesNotExist())
+                .andExpect(jsonPath("$.ageHistogram[0].fromAge").value(20))
+                .andExpect(jsonPath("$.ageHistogram[0].users").value(2))
+                .andExpect(jsonPath("$.dailySignups[0].day").value("2025-01-01"))
+                .andExpect(jsonPath("$.dailySignups[0].users").value(3));
+    }
+
+    @Test
+    @DisplayName("Should include approximate count when requested")
+    void getStats_WithApproximate_ReturnsApproximateCount() throws Exception {
+        when(userStatsService.getStats(true)).thenReturn(new UserStatsResponseDto(3, 1000L, List.of(), List.of(), null));
+
+        mockMvc.perform(get("/userapi/users/stats").param("approximate", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.approximateCount").value(1000));
+
+        verify(userStatsService).getStats(true);
+    }
+}
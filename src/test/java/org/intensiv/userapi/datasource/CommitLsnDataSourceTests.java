@@ -0,0 +1,102 @@
+package org.intensiv.userapi.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CommitLsnDataSourceTests {
+    @Mock
+    private DataSource primary;
+    @Mock
+    private Connection connection;
+    @Mock
+    private Statement statement;
+    @Mock
+    private ResultSet resultSet;
+
+    private final List<Long> committed = new ArrayList<>();
+    private CommitLsnDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString(1)).thenReturn("0/16B3748");
+        dataSource = new CommitLsnDataSource(primary);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadConsistencyContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should report the WAL position on the same connection right after a write commit")
+    void commit_WithTrackedWrite_ShouldReportLsn() throws SQLException {
+        ReadConsistencyContext.onWriteCommitted(committed::add);
+        Connection proxy = dataSource.getConnection();
+
+        proxy.commit();
+
+        assertEquals(List.of(Lsn.parse("0/16B3748")), committed);
+        var order = inOrder(connection, statement);
+        order.verify(connection).commit();
+        order.verify(statement).executeQuery("SELECT pg_current_wal_insert_lsn()::text");
+        order.verify(connection).commit();
+        assertSame(connection, ((ConnectionProxy) proxy).getTargetConnection());
+    }
+
+    @Test
+    @DisplayName("Should not query the LSN when no request waits for it")
+    void commit_WithoutTracking_ShouldOnlyCommit() throws SQLException {
+        dataSource.getConnection().commit();
+
+        verify(connection).commit();
+        verify(connection, never()).createStatement();
+    }
+
+    @Test
+    @DisplayName("Should not query the LSN for read-only transactions")
+    void commit_ReadOnly_ShouldNotReportLsn() throws SQLException {
+        ReadConsistencyContext.onWriteCommitted(committed::add);
+        when(connection.isReadOnly()).thenReturn(true);
+
+        dataSource.getConnection().commit();
+
+        assertTrue(committed.isEmpty());
+        verify(connection, never()).createStatement();
+    }
+
+    @Test
+    @DisplayName("Should not report an LSN when the commit fails")
+    void commit_WhenCommitFails_ShouldPropagateAndNotReport() throws SQLException {
+        ReadConsistencyContext.onWriteCommitted(committed::add);
+        doThrow(new SQLException("serialization failure")).when(connection).commit();
+
+        assertThrows(SQLException.class, () -> dataSource.getConnection().commit());
+        assertTrue(committed.isEmpty());
+    }
+}
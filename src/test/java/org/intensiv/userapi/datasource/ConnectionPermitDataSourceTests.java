@@ -0,0 +1,79 @@
+package org.intensiv.userapi.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionPermitDataSourceTests {
+    @Mock
+    private DataSource pool;
+    @Mock
+    private Connection connection;
+
+    private ConnectionPermitDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ConnectionPermitDataSource(pool, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("Should hold the permit while the connection is open and release it once on close")
+    void getConnection_ThenClose_ShouldReleasePermitOnce() throws SQLException {
+        when(pool.getConnection()).thenReturn(connection);
+
+        Connection proxy = dataSource.getConnection();
+        assertEquals(0, dataSource.availablePermits());
+        proxy.close();
+        proxy.close();
+
+        assertEquals(1, dataSource.availablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    @DisplayName("Should fail fast with a transient exception when no permit is free")
+    void getConnection_WithoutFreePermit_ShouldThrowAfterTimeout() throws SQLException {
+        when(pool.getConnection()).thenReturn(connection);
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(pool, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should release the permit when the pool fails to give a connection")
+    void getConnection_WhenPoolFails_ShouldReleasePermit() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    @DisplayName("Should delegate other calls to the pooled connection")
+    void connectionProxy_ShouldDelegateToTarget() throws SQLException {
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(false);
+
+        Connection proxy = dataSource.getConnection();
+
+        assertFalse(proxy.getAutoCommit());
+        proxy.commit();
+        verify(connection).commit();
+    }
+}
@@ -0,0 +1,120 @@
+package org.intensiv.userapi.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReadReplicaDataSourceTests {
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replicaDataSource;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection replicaConnection;
+    @Mock
+    private Statement statement;
+    @Mock
+    private ResultSet resultSet;
+
+    private ReplicaNode replica;
+    private ReadReplicaDataSource readReplicaDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replicaDataSource.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        replica = new ReplicaNode("replica-0", replicaDataSource);
+        readReplicaDataSource = new ReadReplicaDataSource(primary, List.of(replica), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadConsistencyContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should use replica when it is in sync")
+    void getConnection_WhenReplicaInSync_ShouldUseReplica() throws SQLException {
+        replicaStatus(100, "0/3000000");
+
+        assertSame(replicaConnection, readReplicaDataSource.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should fall back to primary when replica lags too much")
+    void getConnection_WhenReplicaLags_ShouldUsePrimary() throws SQLException {
+        replicaStatus(10_000, "0/3000000");
+
+        assertSame(primaryConnection, readReplicaDataSource.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should fall back to primary when replica has not replayed required LSN")
+    void getConnection_WhenRequiredLsnNotReplayed_ShouldUsePrimary() throws SQLException {
+        replicaStatus(0, "0/3000000");
+        ReadConsistencyContext.requireLsn(Lsn.parse("0/3000100"));
+
+        assertSame(primaryConnection, readReplicaDataSource.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should use replica when it has replayed required LSN")
+    void getConnection_WhenRequiredLsnReplayed_ShouldUseReplica() throws SQLException {
+        replicaStatus(0, "0/3000100");
+        ReadConsistencyContext.requireLsn(Lsn.parse("0/3000100"));
+
+        assertSame(replicaConnection, readReplicaDataSource.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should fall back to primary and mark replica unavailable when it refuses connections")
+    void getConnection_WhenReplicaFails_ShouldUsePrimary() throws SQLException {
+        replicaStatus(0, "0/3000000");
+        when(replicaDataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertSame(primaryConnection, readReplicaDataSource.getConnection());
+        assertFalse(replica.canServe(5000, 0));
+    }
+
+    @Test
+    @DisplayName("Should parse and format LSN")
+    void lsn_ShouldRoundTrip() {
+        long lsn = Lsn.parse("16/B374D848");
+
+        assertEquals((0x16L << 32) | 0xB374D848L, lsn);
+        assertEquals("16/B374D848", Lsn.format(lsn));
+        assertThrows(IllegalArgumentException.class, () -> Lsn.parse("B374D848"));
+    }
+
+    private void replicaStatus(double lagMillis, String replayLsn) throws SQLException {
+        when(resultSet.getBoolean(1)).thenReturn(true);
+        when(resultSet.getDouble(2)).thenReturn(lagMillis);
+        when(resultSet.getString(3)).thenReturn(replayLsn);
+        replica.refresh();
+    }
+}
@@ -0,0 +1,114 @@
+package org.intensiv.userapi.datasource;
+
+import org.intensiv.userapi.filter.ReadConsistencyFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.ComposeContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Основная база и потоковая реплика из loadtest/docker-compose.replica.yml. Кэш выключен,
+// чтобы чтение после записи действительно шло в базу
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "userapi.datasource.read-replicas.enabled=true",
+        "userapi.cache.enabled=false",
+        "userapi.warm-up.enabled=false"})
+public class ReadReplicaIT {
+    private static final String PRIMARY = "postgres";
+    private static final String REPLICA = "postgres-replica";
+    private static final int PORT = 5432;
+
+    @Container
+    static final ComposeContainer compose = new ComposeContainer(new File("loadtest/docker-compose.replica.yml"))
+            .withExposedService(PRIMARY, PORT, Wait.forHealthcheck().withStartupTimeout(Duration.ofMinutes(2)))
+            .withExposedService(REPLICA, PORT, Wait.forHealthcheck().withStartupTimeout(Duration.ofMinutes(2)));
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> jdbcUrl(PRIMARY));
+        registry.add("userapi.datasource.read-replicas.replicas[0].url", () -> jdbcUrl(REPLICA));
+    }
+
+    @Test
+    @DisplayName("Should read own writes with X-Read-After right after each write")
+    void readAfterWrite_WithToken_ShouldSeeOwnWrite() {
+        for (int i = 0; i < 20; i++) {
+            ResponseEntity<Map> created = restTemplate.postForEntity("/userapi/users",
+                    json(Map.of("name", "Replica User", "email", "replica-" + i + "@mail.com", "age", 30)), Map.class);
+            String token = created.getHeaders().getFirst(ReadConsistencyFilter.READ_AFTER_HEADER);
+            assertEquals(200, created.getStatusCode().value());
+            assertNotNull(token);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(ReadConsistencyFilter.READ_AFTER_HEADER, token);
+            ResponseEntity<Map> read = restTemplate.exchange("/userapi/users/" + created.getBody().get("id"),
+                    HttpMethod.GET, new HttpEntity<>(headers), Map.class);
+
+            assertEquals(200, read.getStatusCode().value());
+            assertEquals("replica-" + i + "@mail.com", read.getBody().get("email"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should return a primary LSN that the replica eventually replays")
+    void readAfterToken_ShouldBeReplayedByReplica() throws InterruptedException {
+        ResponseEntity<Map> created = restTemplate.postForEntity("/userapi/users",
+                json(Map.of("name", "Replica User", "email", "replayed@mail.com", "age", 30)), Map.class);
+        long token = Lsn.parse(created.getHeaders().getFirst(ReadConsistencyFilter.READ_AFTER_HEADER));
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(jdbcUrl(REPLICA), "postgres", "1"));
+
+        long replayed = 0;
+        for (int i = 0; i < 100 && replayed < token; i++) {
+            replayed = Lsn.parse(replica.queryForObject("SELECT pg_last_wal_replay_lsn()::text", String.class));
+            Thread.sleep(100);
+        }
+
+        assertTrue(replayed >= token);
+        assertEquals(1, replica.queryForObject(
+                "SELECT count(*) FROM users WHERE email = 'replayed@mail.com'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should not return X-Read-After for POST /lookup")
+    void lookup_ShouldNotReturnReadAfter() {
+        ResponseEntity<String> lookup = restTemplate.postForEntity("/userapi/users/lookup",
+                json(Map.of("ids", new long[]{1, 2})), String.class);
+
+        assertEquals(200, lookup.getStatusCode().value());
+        assertNull(lookup.getHeaders().getFirst(ReadConsistencyFilter.READ_AFTER_HEADER));
+    }
+
+    private static HttpEntity<Object> json(Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+
+    private static String jdbcUrl(String service) {
+        return "jdbc:postgresql://" + compose.getServiceHost(service, PORT) + ":" + compose.getServicePort(service, PORT)
+                + "/postgres";
+    }
+}
@@ -0,0 +1,32 @@
+package org.intensiv.userapi.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AddressMatcherTests {
+    @Test
+    @DisplayName("Should match exact addresses and CIDR subnets of both families")
+    void matches_ShouldCheckAddressesAndSubnets() {
+        AddressMatcher matcher = AddressMatcher.of(List.of("127.0.0.1", "10.0.0.0/8", "fd00::/8"));
+
+        assertTrue(matcher.matches("127.0.0.1"));
+        assertTrue(matcher.matches("10.255.0.1"));
+        assertTrue(matcher.matches("fd12::1"));
+        assertFalse(matcher.matches("127.0.0.2"));
+        assertFalse(matcher.matches("11.0.0.1"));
+        assertFalse(matcher.matches("::1"));
+        assertFalse(matcher.matches("localhost"));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    @DisplayName("Should reject host names and invalid prefixes in configuration")
+    void of_WithInvalidEntry_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> AddressMatcher.of(List.of("proxy.local")));
+        assertThrows(IllegalArgumentException.class, () -> AddressMatcher.of(List.of("10.0.0.0/33")));
+    }
+}
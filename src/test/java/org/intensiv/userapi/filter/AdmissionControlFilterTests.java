@@ -0,0 +1,161 @@
+package org.intensiv.userapi.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.intensiv.userapi.admission.Bulkhead;
+import org.intensiv.userapi.config.AdmissionControlProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTests {
+    private static final String PROXY = "10.0.0.1";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should classify requests into bulkheads")
+    void bulkhead_ShouldClassifyRequests() {
+        assertEquals(Bulkhead.POINT_READ, Bulkhead.of(new MockHttpServletRequest("GET", "/userapi/users/1")));
+        assertEquals(Bulkhead.POINT_READ, Bulkhead.of(new MockHttpServletRequest("POST", "/userapi/users/lookup")));
+        assertEquals(Bulkhead.SCAN, Bulkhead.of(new MockHttpServletRequest("GET", "/userapi/users")));
+        assertEquals(Bulkhead.SCAN, Bulkhead.of(new MockHttpServletRequest("GET", "/userapi/users/changes")));
+        assertEquals(Bulkhead.WRITE, Bulkhead.of(new MockHttpServletRequest("PATCH", "/userapi/users/1")));
+        MockHttpServletRequest multiGet = new MockHttpServletRequest("GET", "/userapi/users");
+        multiGet.setParameter("ids", "1,2");
+        assertEquals(Bulkhead.POINT_READ, Bulkhead.of(multiGet));
+    }
+
+    @Test
+    @DisplayName("Should shed requests above the bulkhead limit with 503 and Retry-After")
+    void doFilter_AboveLimit_ShouldReturn503() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties(0), objectMapper, meterRegistry);
+        CountDownLatch entered = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blockingChain = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Thread first = Thread.ofVirtual().start(() -> filterQuietly(filter, "GET", "/userapi/users", blockingChain));
+        Thread second = Thread.ofVirtual().start(() -> filterQuietly(filter, "GET", "/userapi/users", blockingChain));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = filter("GET", "/userapi/users", filter, new MockFilterChain());
+        MockHttpServletResponse pointRead = filter("GET", "/userapi/users/1", filter, new MockFilterChain());
+        release.countDown();
+        first.join();
+        second.join();
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON_VALUE, rejected.getContentType());
+        assertEquals(503, objectMapper.readTree(rejected.getContentAsByteArray()).get("status").asInt());
+        assertEquals(200, pointRead.getStatus());
+        assertEquals(1, meterRegistry.get("userapi.admission.requests")
+                .tags("bulkhead", "scan", "outcome", "rejected").counter().count());
+        assertEquals(0, meterRegistry.get("userapi.admission.in_flight").tag("bulkhead", "scan").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should rate limit each client behind a trusted proxy separately with 429")
+    void doFilter_OverClientRate_ShouldReturn429() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties(1), objectMapper, meterRegistry);
+
+        MockHttpServletResponse firstA = filter(clientRequest(PROXY, "a"), filter);
+        MockHttpServletResponse secondA = filter(clientRequest(PROXY, "a"), filter);
+        MockHttpServletResponse firstB = filter(clientRequest(PROXY, "b"), filter);
+
+        assertEquals(200, firstA.getStatus());
+        assertEquals(429, secondA.getStatus());
+        assertNotNull(secondA.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON_VALUE, secondA.getContentType());
+        assertEquals("Too many requests",
+                objectMapper.readTree(secondA.getContentAsByteArray()).get("title").asText());
+        assertEquals(200, firstB.getStatus());
+        assertEquals(1, meterRegistry.get("userapi.admission.requests")
+                .tags("bulkhead", "point_read", "outcome", "rate_limited").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should key untrusted clients by address and ignore their client id header")
+    void doFilter_FromUntrustedAddress_ShouldIgnoreClientIdHeader() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties(1), objectMapper, meterRegistry);
+
+        MockHttpServletResponse first = filter(clientRequest("192.168.0.7", "a"), filter);
+        MockHttpServletResponse rotated = filter(clientRequest("192.168.0.7", "b"), filter);
+        MockHttpServletResponse otherAddress = filter(clientRequest("192.168.0.8", "a"), filter);
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, rotated.getStatus());
+        assertEquals(200, otherAddress.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should not apply admission control to the change stream")
+    void shouldNotFilter_ChangeStream() {
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties(0), objectMapper, meterRegistry);
+
+        assertTrue(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/userapi/users/changes/stream")));
+        assertFalse(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/userapi/users/changes")));
+    }
+
+    @Test
+    @DisplayName("Should not apply admission control to the full export")
+    void shouldNotFilter_Export() {
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties(0), objectMapper, meterRegistry);
+
+        assertTrue(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/userapi/users/export")));
+        assertFalse(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/userapi/users")));
+    }
+
+    private static AdmissionControlProperties properties(int clientRatePerSecond) {
+        return new AdmissionControlProperties(true, 1, 10, 10, 4, Duration.ofSeconds(1), "X-Client-Id",
+                List.of(PROXY), clientRatePerSecond, 1, 1000);
+    }
+
+    private static MockHttpServletRequest clientRequest(String remoteAddr, String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/userapi/users/1");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Client-Id", clientId);
+        return request;
+    }
+
+    private static MockHttpServletResponse filter(String method, String uri, AdmissionControlFilter filter,
+                                                  FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletResponse filter(MockHttpServletRequest request, AdmissionControlFilter filter)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static void filterQuietly(AdmissionControlFilter filter, String method, String uri, FilterChain chain) {
+        try {
+            filter(method, uri, filter, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
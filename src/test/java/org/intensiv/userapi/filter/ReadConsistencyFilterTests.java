@@ -0,0 +1,60 @@
+package org.intensiv.userapi.filter;
+
+import jakarta.servlet.FilterChain;
+import org.intensiv.userapi.datasource.Lsn;
+import org.intensiv.userapi.datasource.ReadConsistencyContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadConsistencyFilterTests {
+    private final ReadConsistencyFilter filter = new ReadConsistencyFilter();
+
+    @Test
+    @DisplayName("Should return the commit LSN of a mutation in X-Read-After")
+    void doFilter_Mutation_ShouldSetReadAfterHeader() throws Exception {
+        MockHttpServletResponse response = filter("PATCH", "/userapi/users/1", commit(Lsn.parse("0/16B3748")));
+
+        assertEquals("0/16B3748", response.getHeader(ReadConsistencyFilter.READ_AFTER_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should not track writes for POST /lookup and reads")
+    void doFilter_Lookup_ShouldNotTrackWrites() throws Exception {
+        MockHttpServletResponse lookup = filter("POST", "/userapi/users/lookup", commit(Lsn.parse("0/1")));
+        MockHttpServletResponse read = filter("GET", "/userapi/users/1", commit(Lsn.parse("0/1")));
+
+        assertNull(lookup.getHeader(ReadConsistencyFilter.READ_AFTER_HEADER));
+        assertNull(read.getHeader(ReadConsistencyFilter.READ_AFTER_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should require the LSN from X-Read-After for the request and clear it afterwards")
+    void doFilter_WithReadAfter_ShouldRequireLsnDuringRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/userapi/users/1");
+        request.addHeader(ReadConsistencyFilter.READ_AFTER_HEADER, "1/0");
+        AtomicLong required = new AtomicLong();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> required.set(ReadConsistencyContext.requiredLsn()));
+
+        assertEquals(1L << 32, required.get());
+        assertEquals(0, ReadConsistencyContext.requiredLsn());
+    }
+
+    private MockHttpServletResponse filter(String method, String uri, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, chain);
+        return response;
+    }
+
+    // Коммит пишущей транзакции так, как его сообщает CommitLsnDataSource
+    private static FilterChain commit(long lsn) {
+        return (request, response) -> ReadConsistencyContext.writeCommitted(lsn);
+    }
+}
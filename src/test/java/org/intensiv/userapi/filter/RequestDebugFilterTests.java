@@ -0,0 +1,71 @@
+package org.intensiv.userapi.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDebugFilterTests {
+    private final RequestDebugFilter filter = new RequestDebugFilter(0, AddressMatcher.of(List.of("10.0.0.0/8")));
+
+    @Test
+    @DisplayName("Should echo a well-formed request id and expose it in MDC")
+    void doFilter_WithValidRequestId_ShouldEchoIt() throws Exception {
+        MockHttpServletRequest request = request("192.168.0.1");
+        request.addHeader(RequestDebugFilter.REQUEST_ID_HEADER, "abc-123.DEF");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> requestId = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> requestId.set(MDC.get(RequestDebugFilter.REQUEST_ID_MDC_KEY)));
+
+        assertEquals("abc-123.DEF", response.getHeader(RequestDebugFilter.REQUEST_ID_HEADER));
+        assertEquals("abc-123.DEF", requestId.get());
+        assertNull(MDC.get(RequestDebugFilter.REQUEST_ID_MDC_KEY));
+    }
+
+    @Test
+    @DisplayName("Should replace a malformed or oversized request id with a generated one")
+    void doFilter_WithInvalidRequestId_ShouldGenerateNewOne() throws Exception {
+        for (String invalid : List.of("id\r\nX-Injected: 1", "x".repeat(65), "")) {
+            MockHttpServletRequest request = request("192.168.0.1");
+            request.addHeader(RequestDebugFilter.REQUEST_ID_HEADER, invalid);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filter.doFilter(request, response, (req, res) -> { });
+
+            String requestId = response.getHeader(RequestDebugFilter.REQUEST_ID_HEADER);
+            assertNotEquals(invalid, requestId);
+            assertDoesNotThrow(() -> UUID.fromString(requestId));
+        }
+    }
+
+    @Test
+    @DisplayName("Should honour the debug header only from trusted addresses")
+    void doFilter_WithDebugHeader_ShouldTrustOnlyConfiguredAddresses() throws Exception {
+        assertEquals("true", debugFlag("10.1.2.3"));
+        assertNull(debugFlag("192.168.0.1"));
+    }
+
+    private String debugFlag(String remoteAddr) throws Exception {
+        MockHttpServletRequest request = request(remoteAddr);
+        request.addHeader(RequestDebugFilter.DEBUG_HEADER, "true");
+        AtomicReference<String> debug = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> debug.set(MDC.get(RequestDebugFilter.DEBUG_MDC_KEY)));
+        assertNull(MDC.get(RequestDebugFilter.DEBUG_MDC_KEY));
+        return debug.get();
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/userapi/users/1");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
@@ -0,0 +1,130 @@
+package org.intensiv.userapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingAsyncAppenderTests {
+    private static final int QUEUE_SIZE = 4;
+
+    private final LoggerContext context = new LoggerContext();
+    private final CountDownLatch taken = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final BlockingAppender delegate = new BlockingAppender();
+    private CountingAsyncAppender appender;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should count events rejected by a full queue")
+    void append_WithFullQueue_ShouldCountRejectedEvents() throws Exception {
+        appender = start(0);
+        appender.doAppend(event(Level.WARN));
+        assertTrue(taken.await(5, TimeUnit.SECONDS));
+        long droppedBefore = CountingAsyncAppender.droppedEvents();
+
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event(Level.WARN));
+        }
+
+        assertEquals(10 - QUEUE_SIZE, CountingAsyncAppender.droppedEvents() - droppedBefore);
+    }
+
+    @Test
+    @DisplayName("Should count INFO events discarded above the discarding threshold")
+    void append_AboveDiscardingThreshold_ShouldCountDiscardedEvents() throws Exception {
+        appender = start(2);
+        appender.doAppend(event(Level.WARN));
+        assertTrue(taken.await(5, TimeUnit.SECONDS));
+        appender.doAppend(event(Level.WARN));
+        appender.doAppend(event(Level.WARN));
+        appender.doAppend(event(Level.WARN));
+        long droppedBefore = CountingAsyncAppender.droppedEvents();
+
+        appender.doAppend(event(Level.INFO));
+        appender.doAppend(event(Level.WARN));
+
+        assertEquals(1, CountingAsyncAppender.droppedEvents() - droppedBefore);
+        assertEquals(0, appender.getRemainingCapacity());
+    }
+
+    @Test
+    @DisplayName("Should never count a delivered event as dropped under concurrent producers")
+    void append_WithConcurrentProducers_ShouldNotOvercountDroppedEvents() throws Exception {
+        appender = start(0);
+        release.countDown();
+        long droppedBefore = CountingAsyncAppender.droppedEvents();
+        int producers = 8;
+        int eventsPerProducer = 5_000;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < eventsPerProducer; j++) {
+                    appender.doAppend(event(Level.WARN));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        appender.stop();
+
+        long dropped = CountingAsyncAppender.droppedEvents() - droppedBefore;
+        assertTrue(delegate.received.get() + dropped <= (long) producers * eventsPerProducer);
+    }
+
+    private CountingAsyncAppender start(int discardingThreshold) {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        delegate.setContext(context);
+        delegate.start();
+        CountingAsyncAppender asyncAppender = new CountingAsyncAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setQueueSize(QUEUE_SIZE);
+        asyncAppender.setDiscardingThreshold(discardingThreshold);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.setMaxFlushTime(5_000);
+        asyncAppender.addAppender(delegate);
+        asyncAppender.start();
+        return asyncAppender;
+    }
+
+    private ILoggingEvent event(Level level) {
+        return new LoggingEvent(getClass().getName(), context.getLogger("test"), level, "message", null, null);
+    }
+
+    private class BlockingAppender extends AppenderBase<ILoggingEvent> {
+        private final AtomicInteger received = new AtomicInteger();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            taken.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.intensiv.userapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.intensiv.userapi.filter.RequestDebugFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DebugRequestTurboFilterTests {
+    private final LoggerContext context = new LoggerContext();
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    @DisplayName("Should accept events of debugged requests only for application loggers")
+    void decide_WithDebugFlag_ShouldAcceptOnlyApplicationLoggers() {
+        DebugRequestTurboFilter filter = new DebugRequestTurboFilter();
+        filter.start();
+        MDC.put(RequestDebugFilter.DEBUG_MDC_KEY, "true");
+
+        assertEquals(FilterReply.ACCEPT, decide(filter, "org.intensiv.userapi.service.UserService"));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, "org.hibernate.SQL"));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, "org.hibernate.orm.jdbc.bind"));
+    }
+
+    @Test
+    @DisplayName("Should stay neutral for requests without the debug flag")
+    void decide_WithoutDebugFlag_ShouldBeNeutral() {
+        DebugRequestTurboFilter filter = new DebugRequestTurboFilter();
+        filter.start();
+
+        assertEquals(FilterReply.NEUTRAL, decide(filter, "org.intensiv.userapi.service.UserService"));
+    }
+
+    private FilterReply decide(DebugRequestTurboFilter filter, String loggerName) {
+        return filter.decide(null, context.getLogger(loggerName), Level.TRACE, "message", null, null);
+    }
+}
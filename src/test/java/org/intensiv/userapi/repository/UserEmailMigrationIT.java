@@ -0,0 +1,82 @@
+package org.intensiv.userapi.repository;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.changelog.ChangeSet;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Схема доводится до changeset'а перед миграцией email, заполняется смешанными дубликатами
+// (в том числе в разных пакетах по 10000 id), после чего применяется остаток changelog'а
+@Testcontainers
+public class UserEmailMigrationIT {
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.xml";
+    private static final String FIRST_EMAIL_CHANGESET = "users_email_lower_prepare";
+
+    @Container
+    static final PostgreSQLContainer<?> pgContainer = new PostgreSQLContainer<>("postgres:16.3")
+            .withDatabaseName("test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Test
+    @DisplayName("Should archive newer mixed-case duplicates, lowercase emails and enforce case-insensitive uniqueness")
+    void migrate_WithMixedCaseDuplicates_ShouldKeepOldestAndArchiveOthers() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(pgContainer.getJdbcUrl(),
+                pgContainer.getUsername(), pgContainer.getPassword());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            Liquibase liquibase = new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(),
+                    new JdbcConnection(connection));
+            List<String> ids = liquibase.getDatabaseChangeLog().getChangeSets().stream().map(ChangeSet::getId).toList();
+            liquibase.update(ids.indexOf(FIRST_EMAIL_CHANGESET), new Contexts(), new LabelExpression());
+
+            jdbcTemplate.update("""
+                    INSERT INTO users (id, name, email, age, created_at) VALUES
+                        (1, 'Keeper', 'Foo@X.com', 30, timestamp '2024-01-01'),
+                        (2, 'Lower', 'foo@x.com', 31, timestamp '2024-01-02'),
+                        (3, 'Upper', 'FOO@X.COM', 32, timestamp '2024-01-03'),
+                        (4, 'Unique', 'bar@x.com', 33, timestamp '2024-01-04'),
+                        (5, 'Mixed', 'Baz@X.com', 34, timestamp '2024-01-05'),
+                        (20005, 'Next batch', 'fOO@x.com', 35, timestamp '2024-01-06')""");
+
+            liquibase.update(new Contexts(), new LabelExpression());
+        }
+
+        assertEquals(List.of(Map.of("id", 1L, "email", "foo@x.com", "version", 1L),
+                        Map.of("id", 4L, "email", "bar@x.com", "version", 0L),
+                        Map.of("id", 5L, "email", "baz@x.com", "version", 1L)),
+                jdbcTemplate.queryForList("SELECT id, email, version FROM users ORDER BY id"));
+        assertEquals(List.of(Map.of("id", 2L, "kept_user_id", 1L, "email", "foo@x.com"),
+                        Map.of("id", 3L, "kept_user_id", 1L, "email", "FOO@X.COM"),
+                        Map.of("id", 20005L, "kept_user_id", 1L, "email", "fOO@x.com")),
+                jdbcTemplate.queryForList(
+                        "SELECT id, kept_user_id, email FROM users_email_duplicates_archive ORDER BY id"));
+        assertEquals(List.of(Map.of("user_id", 1L, "event_type", "UPDATED"),
+                        Map.of("user_id", 2L, "event_type", "DELETED"),
+                        Map.of("user_id", 3L, "event_type", "DELETED"),
+                        Map.of("user_id", 5L, "event_type", "UPDATED"),
+                        Map.of("user_id", 20005L, "event_type", "DELETED")),
+                jdbcTemplate.queryForList("SELECT user_id, event_type FROM user_outbox ORDER BY user_id"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_constraint WHERE conname = 'users_email_key'", Integer.class));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, age, created_at)
+                VALUES (6, 'Duplicate', 'BAR@x.com', 35, localtimestamp)"""));
+    }
+}
@@ -0,0 +1,93 @@
+package org.intensiv.userapi.repository;
+
+import org.intensiv.userapi.entity.UserOutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Транзакции открываются на отдельных соединениях, чтобы видимость проверялась между настоящими снимками
+@Testcontainers
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserOutboxRepositoryIT {
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> pgContainer = new PostgreSQLContainer<>("postgres:16.3")
+            .withDatabaseName("test_db")
+            .withUsername("test")
+            .withPassword("test");
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void init() {
+        userOutboxRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should hide events committed after a transaction that is still open")
+    void findVisibleAfter_WithOpenEarlierTransaction_ShouldHideLaterCommits() throws SQLException {
+        try (Connection earlier = dataSource.getConnection()) {
+            earlier.setAutoCommit(false);
+            insertEvent(earlier, 1L);
+
+            try (Connection later = dataSource.getConnection()) {
+                insertEvent(later, 2L);
+            }
+
+            assertEquals(List.of(), userIds(userOutboxRepository.findVisibleAfter(0, 0, 10)));
+
+            earlier.commit();
+        }
+
+        assertEquals(List.of(1L, 2L), userIds(userOutboxRepository.findVisibleAfter(0, 0, 10)));
+    }
+
+    @Test
+    @DisplayName("Should continue after the cursor in (txid, id) order")
+    void findVisibleAfter_WithCursor_ShouldReturnEventsAfterIt() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            insertEvent(connection, 1L);
+            insertEvent(connection, 2L);
+            connection.commit();
+            insertEvent(connection, 3L);
+            connection.commit();
+        }
+        List<UserOutboxEvent> all = userOutboxRepository.findVisibleAfter(0, 0, 10);
+        UserOutboxEvent first = all.get(0);
+
+        List<UserOutboxEvent> page = userOutboxRepository.findVisibleAfter(first.getTxid(), first.getId(), 1);
+
+        assertEquals(List.of(1L, 2L, 3L), userIds(all));
+        assertEquals(List.of(2L), userIds(page));
+    }
+
+    private static void insertEvent(Connection connection, long userId) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO user_outbox (user_id, event_type) VALUES (" + userId + ", 'DELETED')");
+        }
+    }
+
+    private static List<Long> userIds(List<UserOutboxEvent> events) {
+        return events.stream().map(UserOutboxEvent::getUser_id).toList();
+    }
+}
@@ -1,19 +1,27 @@
 package org.intensiv.userapi.repository;
 
+import org.hibernate.Session;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
 import org.intensiv.userapi.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,6 +36,8 @@ public class UserRepositoryIT {
             .withPassword("test");
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private TestEntityManager entityManager;
     private User validUser;
 
     @BeforeEach
@@ -56,6 +66,15 @@ public class UserRepositoryIT {
         assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(user));
     }
 
+    @Test
+    @DisplayName("Should throw exception when saving user with email differing only in case")
+    void save_withDuplicateEmailInOtherCase_shouldThrow() {
+        User user = new User("Ivan", "EMAIL@gmail.com", 20);
+        userRepository.save(validUser);
+
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(user));
+    }
+
     @Test
     @DisplayName("Should return user when user exists by ID")
     void findById_whenUserExists_shouldReturnUser() {
@@ -111,6 +130,121 @@ public class UserRepositoryIT {
         assertTrue(users.isEmpty());
     }
 
+    @Test
+    @DisplayName("Should return users after given id in id order limited by page size")
+    void search_byId_shouldReturnKeysetPage() {
+        User user = new User("Ivan", "my@mail.com", 20);
+        User user2 = new User("Oleg", "oleg@gmail.com", 25);
+        userRepository.save(validUser);
+        userRepository.save(user);
+        userRepository.save(user2);
+
+        List<UserSearchRow> firstPage = userRepository.search(UserFilterRequestDto.NONE, UserSortField.ID,
+                Sort.Direction.ASC, null, 2);
+        List<UserSearchRow> secondPage = userRepository.search(UserFilterRequestDto.NONE, UserSortField.ID,
+                Sort.Direction.ASC, firstPage.get(1).keyset(), 2);
+
+        assertEquals(List.of("Roman", "Ivan"), names(firstPage));
+        assertEquals(List.of("Oleg"), names(secondPage));
+    }
+
+    @Test
+    @DisplayName("Should filter by age and page by age then id")
+    void search_byAgeRange_shouldReturnKeysetPageInAgeOrder() {
+        User user = new User("Ivan", "my@mail.com", 30);
+        User user2 = new User("Oleg", "oleg@gmail.com", 30);
+        User user3 = new User("Anna", "anna@gmail.com", 70);
+        userRepository.save(validUser);
+        userRepository.save(user);
+        userRepository.save(user2);
+        userRepository.save(user3);
+        UserFilterRequestDto filter = new UserFilterRequestDto(20, 40, null, null, null);
+
+        List<UserSearchRow> firstPage = userRepository.search(filter, UserSortField.AGE, Sort.Direction.DESC, null, 2);
+        List<UserSearchRow> secondPage = userRepository.search(filter, UserSortField.AGE, Sort.Direction.DESC,
+                firstPage.get(1).keyset(), 2);
+
+        assertEquals(List.of("Oleg", "Ivan"), names(firstPage));
+        assertEquals(new UserKeyset(30, user.getId()), firstPage.get(1).keyset());
+        assertEquals(List.of("Roman"), names(secondPage));
+    }
+
+    @Test
+    @DisplayName("Should filter by exact email")
+    void search_byEmail_shouldReturnMatchingUser() {
+        userRepository.save(validUser);
+        userRepository.save(new User("Ivan", "my@mail.com", 20));
+
+        List<UserSearchRow> users = userRepository.search(new UserFilterRequestDto(null, null, null, null, "my@mail.com"),
+                UserSortField.NAME, Sort.Direction.ASC, null, 10);
+
+        assertEquals(List.of("Ivan"), names(users));
+    }
+
+    @Test
+    @DisplayName("Should read user straight into response DTO without managed entities")
+    void findResponseById_shouldNotCreateManagedEntities() {
+        userRepository.saveAndFlush(validUser);
+        entityManager.clear();
+
+        Optional<UserResponseDto> found = userRepository.findResponseById(validUser.getId());
+
+        assertTrue(found.isPresent());
+        assertEquals("Roman", found.get().name());
+        assertEquals("email@gmail.com", found.get().email());
+        assertEquals(0L, found.get().version());
+        assertNotNull(found.get().updatedAt());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    @DisplayName("Should read user by email regardless of stored case")
+    void findResponseByEmail_shouldMatchLowerCasedEmail() {
+        userRepository.saveAndFlush(new User("Ivan", "My@Mail.com", 20));
+        entityManager.clear();
+
+        Optional<UserResponseDto> found = userRepository.findResponseByEmail("my@mail.com");
+
+        assertTrue(found.isPresent());
+        assertEquals("Ivan", found.get().name());
+        assertTrue(userRepository.findResponseByEmail("other@mail.com").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should read existing users by ids into response DTOs")
+    void findResponsesByIdIn_shouldReturnExistingUsersOnly() {
+        userRepository.saveAndFlush(validUser);
+        entityManager.clear();
+
+        List<UserResponseDto> found = userRepository.findResponsesByIdIn(List.of(validUser.getId(), validUser.getId() + 1000));
+
+        assertEquals(List.of(validUser.getId()), found.stream().map(UserResponseDto::id).toList());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    @DisplayName("Should return only emails that already exist")
+    void findExistingEmails_shouldReturnStoredEmailsOnly() {
+        userRepository.save(validUser);
+
+        Set<String> existing = userRepository.findExistingEmails(Set.of(validUser.getEmail(), "new@mail.com"));
+
+        assertEquals(Set.of(validUser.getEmail()), existing);
+    }
+
+    @Test
+    @DisplayName("Should assign ids from pooled sequence when saving batch")
+    void saveAll_shouldAssignDistinctIds() {
+        List<User> saved = userRepository.saveAll(List.of(
+                validUser,
+                new User("Ivan", "my@mail.com", 20),
+                new User("Oleg", "oleg@gmail.com", 25)));
+        userRepository.flush();
+
+        assertEquals(3, saved.stream().map(User::getId).distinct().count());
+        assertEquals(3, userRepository.count());
+    }
+
     @Test
     @DisplayName("Should update user when updating with valid data")
     void update_withValidUser_shouldUpdateUser() {
@@ -136,6 +270,74 @@ public class UserRepositoryIT {
         assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(validUser));
     }
 
+    @Test
+    @DisplayName("Should update only non-null fields and return updated row")
+    void updateNonNullFields_shouldKeepNullFieldsUnchanged() {
+        userRepository.saveAndFlush(validUser);
+        entityManager.clear();
+
+        Optional<UserUpdateResult> updated = userRepository.updateNonNullFields(validUser.getId(), null, "new@mail.com", null, null);
+
+        assertTrue(updated.isPresent());
+        assertEquals("Roman", updated.get().user().getName());
+        assertEquals("new@mail.com", updated.get().user().getEmail());
+        assertEquals(26, updated.get().user().getAge());
+        assertEquals(26, updated.get().previousAge());
+    }
+
+    @Test
+    @DisplayName("Should bump version when updating with matching expected version")
+    void updateNonNullFields_withMatchingVersion_shouldBumpVersion() {
+        userRepository.saveAndFlush(validUser);
+        entityManager.clear();
+
+        Optional<UserUpdateResult> updated = userRepository.updateNonNullFields(validUser.getId(), "Ivan", null, null, 0L);
+
+        assertTrue(updated.isPresent());
+        assertEquals(1L, updated.get().user().getVersion());
+        assertEquals(1L, userRepository.findById(validUser.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should return the age before the update from the same statement")
+    void updateNonNullFields_withNewAge_shouldReturnPreviousAge() {
+        userRepository.saveAndFlush(validUser);
+        entityManager.clear();
+
+        Optional<UserUpdateResult> updated = userRepository.updateNonNullFields(validUser.getId(), null, null, 40, null);
+
+        assertTrue(updated.isPresent());
+        assertEquals(40, updated.get().user().getAge());
+        assertEquals(26, updated.get().previousAge());
+    }
+
+    @Test
+    @DisplayName("Should not update when expected version is stale")
+    void updateNonNullFields_withStaleVersion_shouldReturnEmpty() {
+        userRepository.saveAndFlush(validUser);
+        entityManager.clear();
+
+        assertTrue(userRepository.updateNonNullFields(validUser.getId(), "Ivan", null, null, 5L).isEmpty());
+        assertEquals(0L, userRepository.findById(validUser.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should return empty when updating non-existent user")
+    void updateNonNullFields_whenUserDoesNotExist_shouldReturnEmpty() {
+        assertTrue(userRepository.updateNonNullFields(1L, "Ivan", null, 20, null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when updating email to one that already exists")
+    void updateNonNullFields_withDuplicateEmail_shouldThrow() {
+        User user = new User("Ivan", "my@mail.com", 20);
+        userRepository.saveAndFlush(validUser);
+        userRepository.saveAndFlush(user);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.updateNonNullFields(user.getId(), null, validUser.getEmail(), null, null));
+    }
+
     @Test
     @DisplayName("Should delete user when deleting a valid user")
     void delete_withValidUser_shouldDeleteUser() {
@@ -149,8 +351,41 @@ public class UserRepositoryIT {
     }
 
     @Test
-    @DisplayName("Should throw when deleting non-existent user")
-    void delete_whenUserNotExist_shouldReturnZero() {
-        assertEquals(0,userRepository.deleteUserById(1L));
+    @DisplayName("Should return deleted row when deleting by id")
+    void deleteReturningById_whenUserExists_shouldReturnDeletedUser() {
+        userRepository.saveAndFlush(validUser);
+        Long userId = validUser.getId();
+        entityManager.clear();
+
+        Optional<User> deleted = userRepository.deleteReturningById(userId);
+
+        assertTrue(deleted.isPresent());
+        assertEquals(26, deleted.get().getAge());
+        assertNotNull(deleted.get().getCreated_at());
+        entityManager.clear();
+        assertTrue(userRepository.findById(userId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return empty when deleting non-existent user")
+    void deleteReturningById_whenUserNotExist_shouldReturnEmpty() {
+        assertTrue(userRepository.deleteReturningById(1L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should count users by age and by signup day")
+    void countByAgeAndSignups_shouldAggregateUsers() {
+        userRepository.saveAll(List.of(validUser, new User("Ivan", "ivan@gmail.com", 26),
+                new User("Oleg", "oleg@gmail.com", 40)));
+        userRepository.flush();
+
+        assertEquals(Set.of(new UserAgeCount(26, 2L), new UserAgeCount(40, 1L)), Set.copyOf(userRepository.countByAge()));
+        assertEquals(List.of(new UserSignupCount(LocalDate.now(ZoneOffset.UTC), 3L)),
+                userRepository.countSignupsSince(LocalDate.now(ZoneOffset.UTC).atStartOfDay()));
+        assertTrue(userRepository.estimateCount() >= 0);
+    }
+
+    private static List<String> names(List<UserSearchRow> rows) {
+        return rows.stream().map(row -> row.user().name()).toList();
     }
 }
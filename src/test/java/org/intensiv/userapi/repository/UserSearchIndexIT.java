@@ -0,0 +1,102 @@
+package org.intensiv.userapi.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@DataJpaTest
+public class UserSearchIndexIT {
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> pgContainer = new PostgreSQLContainer<>("postgres:16.3")
+            .withDatabaseName("test_db")
+            .withUsername("test")
+            .withPassword("test");
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void init() {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, age, created_at)
+                SELECT g, 'User ' || g, 'user' || g || '@mail.com', 18 + g % 60,
+                       timestamp '2024-01-01' + (g % 365) * interval '1 day'
+                FROM generate_series(1, 20000) AS g""");
+        jdbcTemplate.execute("ANALYZE users");
+    }
+
+    @Test
+    @DisplayName("Should use age index for age range sorted by age")
+    void ageRange_shouldUseAgeIndex() {
+        String plan = explain("""
+                SELECT * FROM users
+                WHERE age >= 20 AND age <= 30
+                ORDER BY age, id LIMIT 21""");
+
+        assertUsesIndex(plan, "idx_users_age_id");
+    }
+
+    @Test
+    @DisplayName("Should use age index for the next keyset page")
+    void ageKeysetPage_shouldUseAgeIndex() {
+        String plan = explain("""
+                SELECT * FROM users
+                WHERE age >= 20 AND age <= 30
+                  AND age >= 25 AND (age > 25 OR id > 1000)
+                ORDER BY age, id LIMIT 21""");
+
+        assertUsesIndex(plan, "idx_users_age_id");
+    }
+
+    @Test
+    @DisplayName("Should use created_at index for created_at range sorted by created_at")
+    void createdAtRange_shouldUseCreatedAtIndex() {
+        String plan = explain("""
+                SELECT * FROM users
+                WHERE created_at >= timestamp '2024-03-01' AND created_at < timestamp '2024-03-08'
+                ORDER BY created_at DESC, id DESC LIMIT 21""");
+
+        assertUsesIndex(plan, "idx_users_created_at_id");
+    }
+
+    @Test
+    @DisplayName("Should use unique email index for exact email")
+    void exactEmail_shouldUseEmailIndex() {
+        String plan = explain("""
+                SELECT * FROM users
+                WHERE email = 'user42@mail.com'
+                ORDER BY id LIMIT 21""");
+
+        assertUsesIndex(plan, "users_email_key");
+    }
+
+    @Test
+    @DisplayName("Should use name index for keyset page sorted by name")
+    void sortByName_shouldUseNameIndex() {
+        String plan = explain("""
+                SELECT * FROM users
+                WHERE name >= 'User 500' AND (name > 'User 500' OR id > 500)
+                ORDER BY name, id LIMIT 21""");
+
+        assertUsesIndex(plan, "idx_users_name_id");
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertFalse(plan.contains("Seq Scan"), plan);
+        assertTrue(plan.contains(index), plan);
+    }
+}
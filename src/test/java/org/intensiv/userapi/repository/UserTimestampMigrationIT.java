@@ -0,0 +1,55 @@
+package org.intensiv.userapi.repository;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.intensiv.userapi.config.LiquibaseConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// База в состоянии первой версии схемы с временем в поясе JVM доводится до текущей
+@Testcontainers
+public class UserTimestampMigrationIT {
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.xml";
+
+    @Container
+    static final PostgreSQLContainer<?> pgContainer = new PostgreSQLContainer<>("postgres:16.3")
+            .withDatabaseName("test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Test
+    @DisplayName("Should convert created_at written in the legacy time zone to UTC and copy it to updated_at")
+    void migrate_FromFirstSchema_ShouldConvertCreatedAtToUtc() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(pgContainer.getJdbcUrl(),
+                pgContainer.getUsername(), pgContainer.getPassword());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            Liquibase liquibase = new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(),
+                    new JdbcConnection(connection));
+            liquibase.update(1, new Contexts(), new LabelExpression());
+            jdbcTemplate.update("""
+                    INSERT INTO users (id, name, email, age, created_at)
+                    VALUES (1, 'Roman', 'roman@x.com', 26, timestamp '2024-07-01 12:00')""");
+
+            liquibase.setChangeLogParameter(LiquibaseConfig.LEGACY_TIME_ZONE_PARAMETER, "Europe/Moscow");
+            liquibase.update(new Contexts(), new LabelExpression());
+        }
+
+        assertEquals(List.of(Map.of("created_at", "2024-07-01 09:00:00", "updated_at", "2024-07-01 09:00:00")),
+                jdbcTemplate.queryForList("SELECT created_at::text AS created_at, updated_at::text AS updated_at FROM users"));
+    }
+}
@@ -0,0 +1,100 @@
+package org.intensiv.userapi.service;
+
+import org.intensiv.userapi.config.ChangeFeedProperties;
+import org.intensiv.userapi.dto.response.UserChangePageResponseDto;
+import org.intensiv.userapi.entity.User;
+import org.intensiv.userapi.entity.UserChangeType;
+import org.intensiv.userapi.entity.UserOutboxEvent;
+import org.intensiv.userapi.exception.InvalidCursorException;
+import org.intensiv.userapi.repository.UserOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeFeedServiceTests {
+    @Mock
+    private UserOutboxRepository userOutboxRepository;
+    private UserChangeFeedService userChangeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        userChangeFeedService = new UserChangeFeedService(userOutboxRepository, new ChangeFeedProperties(
+                2, 3, Duration.ofDays(7), Duration.ofHours(1), 2, Duration.ofSeconds(1), Duration.ofMinutes(30), 1, 10));
+    }
+
+    @Test
+    @DisplayName("Should read changes from the beginning and return cursor of the last event")
+    void getChanges_WithoutCursor_ShouldReturnEventsAndNextCursor() {
+        when(userOutboxRepository.findVisibleAfter(0, 0, 2))
+                .thenReturn(List.of(event(100, 1, UserChangeType.CREATED), event(101, 2, UserChangeType.UPDATED)));
+
+        UserChangePageResponseDto result = userChangeFeedService.getChanges(null, null);
+
+        assertEquals(2, result.events().size());
+        assertEquals(UserChangeType.CREATED, result.events().get(0).type());
+        assertEquals(cursor(101, 2), result.nextCursor());
+        assertEquals(result.events().get(1).cursor(), result.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should continue after cursor and clamp limit to the configured maximum")
+    void getChanges_WithCursorAndLargeLimit_ShouldClampLimit() {
+        when(userOutboxRepository.findVisibleAfter(101, 2, 3)).thenReturn(List.of());
+
+        UserChangePageResponseDto result = userChangeFeedService.getChanges(cursor(101, 2), 1000);
+
+        assertTrue(result.events().isEmpty());
+        assertEquals(cursor(101, 2), result.nextCursor());
+        verify(userOutboxRepository).findVisibleAfter(101, 2, 3);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed change cursor")
+    void getChanges_WithInvalidCursor_ShouldThrowInvalidCursorException() {
+        assertThrows(InvalidCursorException.class, () -> userChangeFeedService.getChanges("not-a-cursor", null));
+        assertThrows(InvalidCursorException.class, () -> userChangeFeedService.getChanges(
+                Base64.getUrlEncoder().encodeToString("100".getBytes(StandardCharsets.UTF_8)), null));
+
+        verifyNoInteractions(userOutboxRepository);
+    }
+
+    @Test
+    @DisplayName("Should prune old events in batches until a partial batch is deleted")
+    void pruneEvents_ShouldDeleteInBatches() {
+        when(userOutboxRepository.deleteBatchCreatedBefore(any(LocalDateTime.class), eq(2))).thenReturn(2, 2, 1);
+
+        userChangeFeedService.pruneEvents();
+
+        verify(userOutboxRepository, times(3)).deleteBatchCreatedBefore(any(LocalDateTime.class), eq(2));
+    }
+
+    private static UserOutboxEvent event(long txid, long id, UserChangeType type) {
+        User user = new User("Роман Красиков", "krasikov.roman@gmail.com", 26);
+        user.setId(1L);
+        UserOutboxEvent event = UserOutboxEvent.of(type, user);
+        ReflectionTestUtils.setField(event, "id", id);
+        ReflectionTestUtils.setField(event, "txid", txid);
+        return event;
+    }
+
+    private static String cursor(long txid, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((txid + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
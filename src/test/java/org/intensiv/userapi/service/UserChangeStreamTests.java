@@ -0,0 +1,130 @@
+package org.intensiv.userapi.service;
+
+import org.intensiv.userapi.config.ChangeFeedProperties;
+import org.intensiv.userapi.dto.response.UserChangeDto;
+import org.intensiv.userapi.dto.response.UserChangePageResponseDto;
+import org.intensiv.userapi.entity.UserChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeStreamTests {
+    private static final int MAX_LIMIT = 2;
+
+    @Mock
+    private UserChangeFeedService userChangeFeedService;
+    private final List<Runnable> sends = new ArrayList<>();
+    private UserChangeStream userChangeStream;
+
+    @BeforeEach
+    void setUp() {
+        userChangeStream = new UserChangeStream(userChangeFeedService, new ChangeFeedProperties(
+                100, MAX_LIMIT, Duration.ofDays(7), Duration.ofHours(1), 10000, Duration.ofSeconds(1),
+                Duration.ofMinutes(30), 1, 10), sends::add);
+    }
+
+    @Test
+    @DisplayName("Should read once from the minimum cursor and fan the page out to all subscribers")
+    void publish_WithSeveralSubscribers_ShouldPollOnceFromMinimumCursor() {
+        userChangeStream.subscribe(cursor(10, 1));
+        userChangeStream.subscribe(cursor(10, 1));
+        userChangeStream.subscribe(cursor(11, 2));
+        when(userChangeFeedService.getChanges(new ChangeCursor(10, 1), MAX_LIMIT))
+                .thenReturn(page(change(11, 2)));
+
+        userChangeStream.publish();
+
+        verify(userChangeFeedService).getChanges(any(ChangeCursor.class), anyInt());
+        assertEquals(2, sends.size());
+    }
+
+    @Test
+    @DisplayName("Should continue every subscriber from the last event it was sent")
+    void publish_AfterSend_ShouldAdvanceSubscriberCursor() {
+        userChangeStream.subscribe(null);
+        when(userChangeFeedService.getChanges(ChangeCursor.START, MAX_LIMIT)).thenReturn(page(change(11, 2)));
+        when(userChangeFeedService.getChanges(new ChangeCursor(11, 2), MAX_LIMIT)).thenReturn(page());
+
+        userChangeStream.publish();
+        sends.forEach(Runnable::run);
+        userChangeStream.publish();
+
+        verify(userChangeFeedService).getChanges(new ChangeCursor(11, 2), MAX_LIMIT);
+    }
+
+    @Test
+    @DisplayName("Should read again for subscribers beyond a full page")
+    void publish_WithFullPage_ShouldReadAgainForUncoveredSubscribers() {
+        userChangeStream.subscribe(null);
+        userChangeStream.subscribe(cursor(20, 5));
+        when(userChangeFeedService.getChanges(ChangeCursor.START, MAX_LIMIT))
+                .thenReturn(page(change(11, 1), change(12, 2)));
+        when(userChangeFeedService.getChanges(new ChangeCursor(20, 5), MAX_LIMIT)).thenReturn(page(change(21, 6)));
+
+        userChangeStream.publish();
+
+        verify(userChangeFeedService).getChanges(ChangeCursor.START, MAX_LIMIT);
+        verify(userChangeFeedService).getChanges(new ChangeCursor(20, 5), MAX_LIMIT);
+        assertEquals(2, sends.size());
+    }
+
+    @Test
+    @DisplayName("Should skip a subscriber while its previous send is still in flight")
+    void publish_WithSendInFlight_ShouldSkipSubscriber() {
+        userChangeStream.subscribe(null);
+        when(userChangeFeedService.getChanges(ChangeCursor.START, MAX_LIMIT)).thenReturn(page(change(11, 2)));
+
+        userChangeStream.publish();
+        userChangeStream.publish();
+
+        verify(userChangeFeedService, times(1)).getChanges(any(ChangeCursor.class), anyInt());
+        assertEquals(1, sends.size());
+    }
+
+    @Test
+    @DisplayName("Should retry a subscriber on the next poll when the send queue is full")
+    void publish_WhenSendQueueIsFull_ShouldRetryOnNextPoll() {
+        userChangeStream = new UserChangeStream(userChangeFeedService, new ChangeFeedProperties(
+                100, MAX_LIMIT, Duration.ofDays(7), Duration.ofHours(1), 10000, Duration.ofSeconds(1),
+                Duration.ofMinutes(30), 1, 10), command -> {
+            throw new RejectedExecutionException();
+        });
+        userChangeStream.subscribe(null);
+        when(userChangeFeedService.getChanges(ChangeCursor.START, MAX_LIMIT)).thenReturn(page(change(11, 2)));
+
+        userChangeStream.publish();
+        userChangeStream.publish();
+
+        verify(userChangeFeedService, times(2)).getChanges(ChangeCursor.START, MAX_LIMIT);
+    }
+
+    private static UserChangePageResponseDto page(UserChangeDto... events) {
+        String nextCursor = events.length == 0 ? null : events[events.length - 1].cursor();
+        return new UserChangePageResponseDto(Arrays.asList(events), nextCursor);
+    }
+
+    private static UserChangeDto change(long txid, long id) {
+        return new UserChangeDto(cursor(txid, id), 1L, UserChangeType.UPDATED, "Роман Красиков",
+                "krasikov.roman@gmail.com", 26, id, LocalDateTime.now());
+    }
+
+    private static String cursor(long txid, long id) {
+        return new ChangeCursor(txid, id).encode();
+    }
+}
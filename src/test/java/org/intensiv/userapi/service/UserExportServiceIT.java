@@ -0,0 +1,109 @@
+package org.intensiv.userapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.intensiv.userapi.config.UserApiConfig;
+import org.intensiv.userapi.entity.User;
+import org.intensiv.userapi.exception.ExportLimitExceededException;
+import org.intensiv.userapi.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// fetch-size меньше числа строк: выгрузка проходит через несколько порций курсора
+@Testcontainers
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserExportService.class, UserApiConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = "userapi.export.fetch-size=2")
+public class UserExportServiceIT {
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> pgContainer = new PostgreSQLContainer<>("postgres:16.3")
+            .withDatabaseName("test_db")
+            .withUsername("test")
+            .withPassword("test");
+    @Autowired
+    private UserExportService userExportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should export all users as CSV ordered by id with quoted text fields")
+    void exportUsers_withCsv_shouldWriteAllRows() {
+        userRepository.deleteAll();
+        User ivan = userRepository.save(new User("Ivan", "ivan@mail.com", 20));
+        User oleg = userRepository.save(new User("Oleg \"Jr\", II", "oleg@mail.com", 25));
+        User petr = userRepository.save(new User("Petr", "petr@mail.com", 30));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = userExportService.exportUsers(output, ExportFormat.CSV);
+
+        assertEquals(3, rows);
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(4, lines.size());
+        assertEquals("id,name,email,age,created_at,updated_at,version", lines.get(0));
+        assertTrue(lines.get(1).startsWith(ivan.getId() + ",\"Ivan\",\"ivan@mail.com\",20,"));
+        assertTrue(lines.get(2).startsWith(oleg.getId() + ",\"Oleg \"\"Jr\"\", II\",\"oleg@mail.com\",25,"));
+        assertTrue(lines.get(3).startsWith(petr.getId() + ",\"Petr\""));
+        assertTrue(lines.get(3).endsWith(",0"));
+    }
+
+    @Test
+    @DisplayName("Should export all users as NDJSON, one object per line")
+    void exportUsers_withNdjson_shouldWriteAllRows() throws Exception {
+        userRepository.deleteAll();
+        User ivan = userRepository.save(new User("Ivan", "ivan@mail.com", 20));
+        userRepository.save(new User("Oleg", "oleg@mail.com", 25));
+        userRepository.save(new User("Petr", "petr@mail.com", 30));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = userExportService.exportUsers(output, ExportFormat.NDJSON);
+
+        assertEquals(3, rows);
+        String ndjson = output.toString(StandardCharsets.UTF_8);
+        assertTrue(ndjson.endsWith("\n"));
+        List<String> lines = ndjson.lines().toList();
+        assertEquals(3, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(ivan.getId(), first.get("id").asLong());
+        assertEquals("ivan@mail.com", first.get("email").asText());
+        assertEquals(20, first.get("age").asInt());
+        assertEquals(0, first.get("version").asLong());
+        assertTrue(first.hasNonNull("createdAt"));
+        assertEquals("Petr", objectMapper.readTree(lines.get(2)).get("name").asText());
+    }
+
+    @Test
+    @DisplayName("Should reject an export over max-concurrent until a permit is released")
+    void acquirePermit_overLimit_shouldThrow() {
+        UserExportService.ExportPermit first = userExportService.acquirePermit();
+        UserExportService.ExportPermit second = userExportService.acquirePermit();
+
+        assertThrows(ExportLimitExceededException.class, userExportService::acquirePermit);
+
+        first.close();
+        userExportService.acquirePermit().close();
+        second.close();
+    }
+}
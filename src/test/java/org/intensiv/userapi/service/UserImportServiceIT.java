@@ -0,0 +1,122 @@
+package org.intensiv.userapi.service;
+
+import org.intensiv.userapi.config.UserApiConfig;
+import org.intensiv.userapi.dto.response.ImportResultDto;
+import org.intensiv.userapi.entity.User;
+import org.intensiv.userapi.entity.UserOutboxEvent;
+import org.intensiv.userapi.repository.UserOutboxRepository;
+import org.intensiv.userapi.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@DataJpaTest
+@Import({UserImportService.class, UserStatsService.class, UserApiConfig.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+public class UserImportServiceIT {
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> pgContainer = new PostgreSQLContainer<>("postgres:16.3")
+            .withDatabaseName("test_db")
+            .withUsername("test")
+            .withPassword("test");
+    @Autowired
+    private UserImportService userImportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @Test
+    @DisplayName("Should import valid CSV rows and count rejected and duplicate rows")
+    void importUsers_withCsv_shouldImportValidRows() {
+        userRepository.saveAndFlush(new User("Roman", "email@gmail.com", 26));
+        String csv = """
+                name,email,age
+                Ivan,my@mail.com,20
+                "Oleg, Jr.",oleg@gmail.com,25
+                Roman,email@gmail.com,26
+                Ivan,my@mail.com,21
+                broken,not-an-email,20
+                Petr,petr@mail.com,abc
+                """;
+
+        ImportResultDto result = userImportService.importUsers(stream(csv), ImportFormat.CSV);
+
+        assertEquals(new ImportResultDto(2, 2, 2), result);
+        List<String> names = userRepository.findAll().stream().map(User::getName).toList();
+        assertTrue(names.containsAll(List.of("Roman", "Ivan", "Oleg, Jr.")));
+        assertEquals(3, names.size());
+        assertEquals(2, userOutboxRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should import valid NDJSON rows and reject malformed lines")
+    void importUsers_withNdjson_shouldImportValidRows() {
+        String ndjson = """
+                {"name":"Ivan","email":"my@mail.com","age":20}
+                {"name":"Oleg","email":"oleg@gmail.com","age":200}
+                {not json}
+                """;
+
+        ImportResultDto result = userImportService.importUsers(stream(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(new ImportResultDto(1, 2, 0), result);
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should reject lines longer than the line limit without reading them into memory")
+    void importUsers_withTooLongLine_shouldRejectIt() {
+        String csv = "Ivan,my@mail.com,20\n"
+                + "x".repeat(1_000_000) + ",long@mail.com,30\n"
+                + "Oleg,oleg@gmail.com,25\n";
+
+        ImportResultDto result = userImportService.importUsers(stream(csv), ImportFormat.CSV);
+
+        assertEquals(new ImportResultDto(2, 1, 0), result);
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should assign consecutive ids to imported rows instead of one sequence step per row")
+    void importUsers_shouldNotSkipSequenceStepPerRow() {
+        String csv = """
+                name,email,age
+                Ivan,my@mail.com,20
+                Oleg,oleg@gmail.com,25
+                Petr,petr@mail.com,30
+                """;
+
+        userImportService.importUsers(stream(csv), ImportFormat.CSV);
+
+        LongSummaryStatistics userIds = userRepository.findAll().stream()
+                .mapToLong(User::getId).summaryStatistics();
+        assertEquals(3, userIds.getCount());
+        assertEquals(2, userIds.getMax() - userIds.getMin());
+        LongSummaryStatistics outboxIds = userOutboxRepository.findAll().stream()
+                .mapToLong(UserOutboxEvent::getId).summaryStatistics();
+        assertEquals(2, outboxIds.getMax() - outboxIds.getMin());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,26 +1,58 @@
 package org.intensiv.userapi.service;
 
+import org.intensiv.userapi.config.BatchCreateProperties;
+import org.intensiv.userapi.config.MultiGetProperties;
+import org.intensiv.userapi.config.PaginationProperties;
 import org.intensiv.userapi.dto.request.CreateUserRequestDto;
 import org.intensiv.userapi.dto.request.UpdateUserRequestDto;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.response.BatchCreateItemResultDto;
+import org.intensiv.userapi.dto.response.BatchItemStatus;
+import org.intensiv.userapi.dto.response.UserLookupResponseDto;
+import org.intensiv.userapi.dto.response.UserPageResponseDto;
 import org.intensiv.userapi.dto.response.UserResponseDto;
 import org.intensiv.userapi.entity.User;
+import org.intensiv.userapi.entity.UserChangeType;
+import org.intensiv.userapi.entity.UserOutboxEvent;
+import org.intensiv.userapi.exception.BatchTooLargeException;
 import org.intensiv.userapi.exception.DuplicateEmailException;
+import org.intensiv.userapi.exception.InvalidCursorException;
+import org.intensiv.userapi.exception.PreconditionFailedException;
+import org.intensiv.userapi.exception.TooManyIdsException;
 import org.intensiv.userapi.exception.UserNotFoundException;
 import org.intensiv.userapi.mapper.UserMapper;
+import org.intensiv.userapi.repository.UserKeyset;
+import org.intensiv.userapi.repository.UserOutboxRepository;
 import org.intensiv.userapi.repository.UserRepository;
+import org.intensiv.userapi.repository.UserSearchRow;
+import org.intensiv.userapi.repository.UserSortField;
+import org.intensiv.userapi.repository.UserUpdateResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,8 +61,13 @@ class UserServiceTests {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserOutboxRepository userOutboxRepository;
+    @Mock
+    private UserStatsService userStatsService;
+    @Mock
     private UserMapper userMapper;
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
     private UserService userService;
 
     private CreateUserRequestDto createUserRequestDto;
@@ -40,34 +77,40 @@ class UserServiceTests {
 
     @BeforeEach
     void setUp() {
+        userService = new UserService(userRepository, userOutboxRepository, userStatsService, userMapper,
+                new PaginationProperties(20, 100), new MultiGetProperties(3), new BatchCreateProperties(3),
+                new TransactionTemplate(transactionManager));
         createUserRequestDto = new CreateUserRequestDto("Роман Красиков", "krasikov.roman@gmail.com", 26);
         updateUserRequestDto = new UpdateUserRequestDto("Роман Красиков", "krasikov.roman.new@gmail.com", 27);
         userResponseDto = new UserResponseDto(1L, "Роман Красиков", "krasikov.roman@gmail.com");
         user = new User("Роман Красиков", "krasikov.roman@gmail.com", 26);
         user.setId(1L);
+        user.setCreated_at(LocalDateTime.of(2025, 1, 1, 12, 0));
     }
 
     @Test
     @DisplayName("Should create user when email doesn't exist")
     void createUser_WhenEmailDoesNotExist_ShouldCreateUser() {
-        when(userRepository.existsByEmail(createUserRequestDto.email())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(user);
         when(userMapper.toUserEntity(createUserRequestDto)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
         when(userMapper.toUserResponseDto(user)).thenReturn(userResponseDto);
 
         UserResponseDto result = userService.createUser(createUserRequestDto);
 
         assertNotNull(result);
         assertEquals(userResponseDto, result);
-        verify(userRepository).existsByEmail(createUserRequestDto.email());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(user);
+        verify(userOutboxRepository).save(argThat(event ->
+                event.getEvent_type() == UserChangeType.CREATED && USER_ID.equals(event.getUser_id())));
+        verify(userStatsService).recordCreated(26, LocalDate.of(2025, 1, 1), 1);
         verify(userMapper).toUserResponseDto(user);
     }
 
     @Test
     @DisplayName("Should throw DuplicateEmailException when email already exists")
     void createUser_WhenEmailExists_ShouldThrowDuplicateEmailException() {
-        when(userRepository.existsByEmail(createUserRequestDto.email())).thenReturn(true);
+        when(userMapper.toUserEntity(createUserRequestDto)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"uq_users_email_lower\""));
 
         DuplicateEmailException exception = assertThrows(
                 DuplicateEmailException.class,
@@ -76,11 +119,87 @@ class UserServiceTests {
 
         assertEquals("Пользователь с email " + createUserRequestDto.email() + " уже существует",
                 exception.getMessage());
-        verify(userRepository).existsByEmail(createUserRequestDto.email());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository).saveAndFlush(user);
         verify(userMapper, never()).toUserResponseDto(any(User.class));
     }
 
+    @Test
+    @DisplayName("Should create new users in batch and report conflicts for existing and repeated emails")
+    void createUsers_WithExistingAndRepeatedEmails_ShouldReportConflicts() {
+        CreateUserRequestDto existing = new CreateUserRequestDto("Jane Doe", "jane.doe@example.com", 30);
+        CreateUserRequestDto repeated = new CreateUserRequestDto("Роман", createUserRequestDto.email(), 27);
+        List<CreateUserRequestDto> requestDtos = List.of(createUserRequestDto, existing, repeated);
+
+        when(userRepository.findExistingEmails(Set.of(createUserRequestDto.email(), existing.email())))
+                .thenReturn(Set.of(existing.email()));
+        when(userMapper.toUserEntity(createUserRequestDto)).thenReturn(user);
+        when(userRepository.saveAll(List.of(user))).thenReturn(List.of(user));
+        when(userMapper.toUserResponseDto(user)).thenReturn(userResponseDto);
+
+        List<BatchCreateItemResultDto> result = userService.createUsers(requestDtos);
+
+        assertEquals(3, result.size());
+        assertEquals(BatchCreateItemResultDto.created(0, userResponseDto), result.get(0));
+        assertEquals(BatchItemStatus.CONFLICT, result.get(1).status());
+        assertEquals(1, result.get(1).index());
+        assertEquals(BatchItemStatus.CONFLICT, result.get(2).status());
+        assertEquals(2, result.get(2).index());
+        verify(userRepository).saveAll(List.of(user));
+        verify(userOutboxRepository).saveAll(argThat((List<UserOutboxEvent> events) -> events.size() == 1));
+        verify(userStatsService).recordCreated(26, LocalDate.of(2025, 1, 1), 1);
+        verify(userMapper, never()).toUserEntity(existing);
+        verify(userMapper, never()).toUserEntity(repeated);
+    }
+
+    @Test
+    @DisplayName("Should retry batch and report conflict when email is taken by concurrent request")
+    void createUsers_WhenEmailTakenConcurrently_ShouldRetryAndReportConflict() {
+        List<CreateUserRequestDto> requestDtos = List.of(createUserRequestDto);
+        when(userRepository.findExistingEmails(Set.of(createUserRequestDto.email())))
+                .thenReturn(Set.of())
+                .thenReturn(Set.of(createUserRequestDto.email()));
+        when(userMapper.toUserEntity(createUserRequestDto)).thenReturn(user);
+        when(userRepository.saveAll(List.of(user))).thenReturn(List.of(user));
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"uq_users_email_lower\""))
+                .doNothing()
+                .when(userRepository).flush();
+
+        List<BatchCreateItemResultDto> result = userService.createUsers(requestDtos);
+
+        assertEquals(1, result.size());
+        assertEquals(BatchItemStatus.CONFLICT, result.get(0).status());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+        verify(userStatsService, never()).recordCreated(anyInt(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should rethrow integrity violation not caused by duplicate email without retry")
+    void createUsers_WhenOtherIntegrityViolation_ShouldRethrowWithoutRetry() {
+        List<CreateUserRequestDto> requestDtos = List.of(createUserRequestDto);
+        when(userRepository.findExistingEmails(Set.of(createUserRequestDto.email()))).thenReturn(Set.of());
+        when(userMapper.toUserEntity(createUserRequestDto)).thenReturn(user);
+        when(userRepository.saveAll(List.of(user))).thenReturn(List.of(user));
+        doThrow(new DataIntegrityViolationException("value too long for type character varying(255)"))
+                .when(userRepository).flush();
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.createUsers(requestDtos));
+
+        verify(userRepository).findExistingEmails(Set.of(createUserRequestDto.email()));
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should throw BatchTooLargeException when batch exceeds configured size")
+    void createUsers_WhenBatchTooLarge_ShouldThrowBatchTooLargeException() {
+        List<CreateUserRequestDto> requestDtos = List.of(createUserRequestDto, createUserRequestDto,
+                createUserRequestDto, createUserRequestDto);
+
+        assertThrows(BatchTooLargeException.class, () -> userService.createUsers(requestDtos));
+
+        verifyNoInteractions(userRepository, transactionManager);
+    }
+
     @Test
     @DisplayName("Should get user by id when user exists")
     void getUser_WhenUserExists_ShouldReturnUser() {
@@ -92,7 +211,7 @@ class UserServiceTests {
         assertNotNull(result);
         assertEquals(userResponseDto, result);
         verify(userRepository).findById(USER_ID);
-        verify(userMapper).toUserResponseDto(user);
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
     }
 
     @Test
@@ -111,39 +230,205 @@ class UserServiceTests {
     }
 
     @Test
-    @DisplayName("Should return all users")
-    void getAllUsers_WhenUsersExist_ShouldReturnAllUsers() {
-        User user2 = new User("Jane Doe", "jane.doe@example.com", 30);
-        user2.setId(2L);
-        UserResponseDto userResponseDto2 = new UserResponseDto(2L, "Jane Doe", "jane.doe@example.com");
+    @DisplayName("Should get user by email in lower case")
+    void getUserByEmail_WhenUserExists_ShouldQueryNormalizedEmail() {
+        when(userRepository.findResponseByEmail("krasikov.roman@gmail.com")).thenReturn(Optional.of(userResponseDto));
+
+        UserResponseDto result = userService.getUserByEmail("Krasikov.Roman@Gmail.com");
 
-        List<User> users = Arrays.asList(user, user2);
-        List<UserResponseDto> expectedResponse = Arrays.asList(userResponseDto, userResponseDto2);
+        assertEquals(userResponseDto, result);
+        verify(userRepository).findResponseByEmail("krasikov.roman@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Should throw UserNotFoundException when no user has the email")
+    void getUserByEmail_WhenUserDoesNotExist_ShouldThrowUserNotFoundException() {
+        when(userRepository.findResponseByEmail("missing@gmail.com")).thenReturn(Optional.empty());
+
+        UserNotFoundException exception = assertThrows(
+                UserNotFoundException.class,
+                () -> userService.getUserByEmail("missing@gmail.com")
+        );
 
-        when(userRepository.findAll()).thenReturn(users);
+        assertEquals("User c email:missing@gmail.com не найден", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should share one load between concurrent requests for the same user")
+    void getUser_WhenLoadInFlight_ShouldWaitForItInsteadOfQuerying() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(userRepository.findById(USER_ID)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            return Optional.of(user);
+        });
         when(userMapper.toUserResponseDto(user)).thenReturn(userResponseDto);
-        when(userMapper.toUserResponseDto(user2)).thenReturn(userResponseDto2);
 
-        List<UserResponseDto> result = userService.getAllUsers();
+        FutureTask<UserResponseDto> leader = new FutureTask<>(() -> userService.getUser(USER_ID));
+        FutureTask<UserResponseDto> follower = new FutureTask<>(() -> userService.getUser(USER_ID));
+        new Thread(leader).start();
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        Thread followerThread = new Thread(follower);
+        followerThread.start();
+        awaitWaiting(followerThread);
+        releaseLoad.countDown();
+
+        assertEquals(userResponseDto, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(userResponseDto, follower.get(5, TimeUnit.SECONDS));
+        verify(userRepository, times(1)).findById(USER_ID);
+    }
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals(expectedResponse, result);
-        verify(userRepository).findAll();
-        verify(userMapper, times(2)).toUserResponseDto(any(User.class));
+    @Test
+    @DisplayName("Should propagate failure of shared load to waiting requests")
+    void getUser_WhenSharedLoadFails_ShouldThrowForAllWaiters() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(userRepository.findById(USER_ID)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+
+        FutureTask<UserResponseDto> leader = new FutureTask<>(() -> userService.getUser(USER_ID));
+        FutureTask<UserResponseDto> follower = new FutureTask<>(() -> userService.getUser(USER_ID));
+        new Thread(leader).start();
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        Thread followerThread = new Thread(follower);
+        followerThread.start();
+        awaitWaiting(followerThread);
+        releaseLoad.countDown();
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(UserNotFoundException.class, leaderFailure.getCause());
+        assertInstanceOf(UserNotFoundException.class, followerFailure.getCause());
+        verify(userRepository, times(1)).findById(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should release waiting requests when shared load fails with an Error")
+    void getUser_WhenSharedLoadFailsWithError_ShouldThrowForAllWaiters() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(userRepository.findById(USER_ID)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            throw new StackOverflowError();
+        });
+
+        FutureTask<UserResponseDto> leader = new FutureTask<>(() -> userService.getUser(USER_ID));
+        FutureTask<UserResponseDto> follower = new FutureTask<>(() -> userService.getUser(USER_ID));
+        new Thread(leader).start();
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        Thread followerThread = new Thread(follower);
+        followerThread.start();
+        awaitWaiting(followerThread);
+        releaseLoad.countDown();
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, leaderFailure.getCause());
+        assertInstanceOf(StackOverflowError.class, followerFailure.getCause());
     }
 
     @Test
-    @DisplayName("Should return empty list when no users exist")
-    void getAllUsers_WhenNoUsersExist_ShouldReturnEmptyList() {
-        when(userRepository.findAll()).thenReturn(List.of());
+    @DisplayName("Should load again once previous load has completed")
+    void getUser_AfterLoadCompleted_ShouldQueryAgain() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(userMapper.toUserResponseDto(user)).thenReturn(userResponseDto);
 
-        List<UserResponseDto> result = userService.getAllUsers();
+        userService.getUser(USER_ID);
+        userService.getUser(USER_ID);
+
+        verify(userRepository, times(2)).findById(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should return first page of users with next cursor")
+    void getUsers_WhenMoreUsersExist_ShouldReturnPageWithNextCursor() {
+        UserResponseDto userResponseDto2 = new UserResponseDto(2L, "Jane Doe", "jane.doe@example.com");
+        UserResponseDto userResponseDto3 = new UserResponseDto(3L, "John Doe", "john.doe@example.com");
+
+        when(userRepository.search(UserFilterRequestDto.NONE, UserSortField.ID, Sort.Direction.ASC, null, 3))
+                .thenReturn(List.of(idRow(userResponseDto), idRow(userResponseDto2), idRow(userResponseDto3)));
+
+        UserPageResponseDto result = userService.getUsers(UserFilterRequestDto.NONE, null, null, 2);
 
         assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(userRepository).findAll();
-        verify(userMapper, never()).toUserResponseDto(any(User.class));
+        assertEquals(Arrays.asList(userResponseDto, userResponseDto2), result.items());
+        assertNotNull(result.nextCursor());
+        verifyNoInteractions(userMapper);
+    }
+
+    @Test
+    @DisplayName("Should continue from cursor returned by previous page")
+    void getUsers_WithCursor_ShouldContinueAfterLastId() {
+        UserResponseDto userResponseDto2 = new UserResponseDto(2L, "Jane Doe", "jane.doe@example.com");
+        UserResponseDto userResponseDto3 = new UserResponseDto(3L, "John Doe", "john.doe@example.com");
+
+        when(userRepository.search(UserFilterRequestDto.NONE, UserSortField.ID, Sort.Direction.ASC, null, 3))
+                .thenReturn(List.of(idRow(userResponseDto), idRow(userResponseDto2), idRow(userResponseDto3)));
+        when(userRepository.search(UserFilterRequestDto.NONE, UserSortField.ID, Sort.Direction.ASC, new UserKeyset(null, 2L), 3))
+                .thenReturn(List.of(idRow(userResponseDto3)));
+
+        String cursor = userService.getUsers(UserFilterRequestDto.NONE, null, null, 2).nextCursor();
+        UserPageResponseDto result = userService.getUsers(UserFilterRequestDto.NONE, null, cursor, 2);
+
+        assertEquals(List.of(userResponseDto3), result.items());
+        assertNull(result.nextCursor());
+        verify(userRepository).search(UserFilterRequestDto.NONE, UserSortField.ID, Sort.Direction.ASC, new UserKeyset(null, 2L), 3);
+    }
+
+    @Test
+    @DisplayName("Should continue sorted page from cursor with sort value and id")
+    void getUsers_WithSortAndCursor_ShouldContinueAfterLastSortValue() {
+        UserFilterRequestDto filter = new UserFilterRequestDto(20, 40, null, null, null);
+        UserResponseDto userResponseDto2 = new UserResponseDto(2L, "Jane Doe", "jane.doe@example.com");
+        UserResponseDto userResponseDto3 = new UserResponseDto(3L, "John Doe", "john.doe@example.com");
+        UserSearchRow row2 = new UserSearchRow(userResponseDto2, new UserKeyset(30, 2L));
+        UserSearchRow row3 = new UserSearchRow(userResponseDto3, new UserKeyset(31, 3L));
+
+        when(userRepository.search(filter, UserSortField.AGE, Sort.Direction.DESC, null, 2))
+                .thenReturn(List.of(row3, row2));
+        when(userRepository.search(filter, UserSortField.AGE, Sort.Direction.DESC, new UserKeyset(31, 3L), 2))
+                .thenReturn(List.of(row2));
+
+        String cursor = userService.getUsers(filter, "-age", null, 1).nextCursor();
+        UserPageResponseDto result = userService.getUsers(filter, "-age", cursor, 1);
+
+        assertEquals(List.of(userResponseDto2), result.items());
+        verify(userRepository).search(filter, UserSortField.AGE, Sort.Direction.DESC, new UserKeyset(31, 3L), 2);
+    }
+
+    @Test
+    @DisplayName("Should reject cursor issued for a different sort field")
+    void getUsers_WithCursorForOtherSort_ShouldThrowInvalidCursorException() {
+        String ageCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("age:31:3".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(InvalidCursorException.class,
+                () -> userService.getUsers(UserFilterRequestDto.NONE, "name", ageCursor, null));
+    }
+
+    @Test
+    @DisplayName("Should cap page size at configured maximum")
+    void getUsers_WithLimitAboveMaximum_ShouldUseMaxLimit() {
+        when(userRepository.search(UserFilterRequestDto.NONE, UserSortField.ID, Sort.Direction.ASC, null, 101)).thenReturn(List.of());
+
+        UserPageResponseDto result = userService.getUsers(UserFilterRequestDto.NONE, null, null, 10_000);
+
+        assertTrue(result.items().isEmpty());
+        assertNull(result.nextCursor());
+        verify(userRepository).search(UserFilterRequestDto.NONE, UserSortField.ID, Sort.Direction.ASC, null, 101);
+    }
+
+    @Test
+    @DisplayName("Should throw InvalidCursorException when cursor is malformed")
+    void getUsers_WithMalformedCursor_ShouldThrowInvalidCursorException() {
+        assertThrows(InvalidCursorException.class, () -> userService.getUsers(UserFilterRequestDto.NONE, null, "not a cursor!", null));
+
+        verify(userRepository, never()).search(any(), any(), any(), any(), anyInt());
     }
 
     @Test
@@ -151,70 +436,123 @@ class UserServiceTests {
     void updateUser_WhenUserExistsAndEmailIsUnique_ShouldUpdateUser() {
         UserResponseDto updatedUserResponseDto = new UserResponseDto(USER_ID, "John Updated", "john.updated@example.com");
 
-        when(userRepository.existsByEmailAndIdNot(updateUserRequestDto.email(), USER_ID)).thenReturn(false);
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.updateNonNullFields(USER_ID, updateUserRequestDto.name(), updateUserRequestDto.email(),
+                updateUserRequestDto.age(), null)).thenReturn(Optional.of(new UserUpdateResult(user, 20)));
         when(userMapper.toUserResponseDto(user)).thenReturn(updatedUserResponseDto);
 
-        UserResponseDto result = userService.updateUser(USER_ID, updateUserRequestDto);
+        UserResponseDto result = userService.updateUser(USER_ID, updateUserRequestDto, null);
 
         assertNotNull(result);
         assertEquals(updatedUserResponseDto, result);
-        verify(userRepository).existsByEmailAndIdNot(updateUserRequestDto.email(), USER_ID);
-        verify(userRepository).findById(USER_ID);
-        verify(userMapper).updateUserFromDto(updateUserRequestDto, user);
-        verify(userRepository).save(user);
+        verify(userRepository).updateNonNullFields(USER_ID, updateUserRequestDto.name(), updateUserRequestDto.email(),
+                updateUserRequestDto.age(), null);
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).save(any(User.class));
+        verify(userOutboxRepository).save(argThat(event ->
+                event.getEvent_type() == UserChangeType.UPDATED && "krasikov.roman@gmail.com".equals(event.getEmail())));
+        verify(userStatsService).recordAgeChanged(20, 26);
         verify(userMapper).toUserResponseDto(user);
     }
 
+    @Test
+    @DisplayName("Should not report other integrity violations as duplicate email")
+    void createUser_WhenOtherIntegrityViolation_ShouldRethrow() {
+        when(userMapper.toUserEntity(createUserRequestDto)).thenReturn(user);
+        DataIntegrityViolationException violation =
+                new DataIntegrityViolationException("value too long for type character varying(255)");
+        when(userRepository.saveAndFlush(user)).thenThrow(violation);
+
+        DataIntegrityViolationException exception = assertThrows(
+                DataIntegrityViolationException.class,
+                () -> userService.createUser(createUserRequestDto)
+        );
+
+        assertSame(violation, exception);
+        verify(userOutboxRepository, never()).save(any(UserOutboxEvent.class));
+    }
+
     @Test
     @DisplayName("Should throw DuplicateEmailException when updating with existing email")
     void updateUser_WhenEmailExists_ShouldThrowDuplicateEmailException() {
-        when(userRepository.existsByEmailAndIdNot(updateUserRequestDto.email(), USER_ID)).thenReturn(true);
+        when(userRepository.updateNonNullFields(USER_ID, updateUserRequestDto.name(), updateUserRequestDto.email(),
+                updateUserRequestDto.age(), null)).thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"uq_users_email_lower\""));
 
         DuplicateEmailException exception = assertThrows(
                 DuplicateEmailException.class,
-                () -> userService.updateUser(USER_ID, updateUserRequestDto)
+                () -> userService.updateUser(USER_ID, updateUserRequestDto, null)
         );
 
         assertEquals("Пользователь с email " + updateUserRequestDto.email() + " уже существует",
                 exception.getMessage());
-        verify(userRepository).existsByEmailAndIdNot(updateUserRequestDto.email(), USER_ID);
-        verify(userRepository, never()).findById(USER_ID);
-        verify(userMapper, never()).updateUserFromDto(any(), any());
+        verify(userMapper, never()).toUserResponseDto(any(User.class));
     }
 
     @Test
     @DisplayName("Should throw UserNotFoundException when updating non-existent user")
     void updateUser_WhenUserDoesNotExist_ShouldThrowUserNotFoundException() {
-        when(userRepository.existsByEmailAndIdNot(updateUserRequestDto.email(), USER_ID)).thenReturn(false);
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+        when(userRepository.updateNonNullFields(USER_ID, updateUserRequestDto.name(), updateUserRequestDto.email(),
+                updateUserRequestDto.age(), null)).thenReturn(Optional.empty());
 
         UserNotFoundException exception = assertThrows(
                 UserNotFoundException.class,
-                () -> userService.updateUser(USER_ID, updateUserRequestDto)
+                () -> userService.updateUser(USER_ID, updateUserRequestDto, null)
         );
 
         assertEquals("User c id:" + USER_ID + " не найден", exception.getMessage());
-        verify(userRepository).existsByEmailAndIdNot(updateUserRequestDto.email(), USER_ID);
-        verify(userRepository).findById(USER_ID);
-        verify(userMapper, never()).updateUserFromDto(any(), any());
+        verify(userMapper, never()).toUserResponseDto(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Should throw PreconditionFailedException when version does not match")
+    void updateUser_WhenVersionDoesNotMatch_ShouldThrowPreconditionFailedException() {
+        when(userRepository.updateNonNullFields(USER_ID, updateUserRequestDto.name(), updateUserRequestDto.email(),
+                updateUserRequestDto.age(), 3L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(USER_ID)).thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class,
+                () -> userService.updateUser(USER_ID, updateUserRequestDto, 3L));
+
+        verify(userMapper, never()).toUserResponseDto(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Should return users in requested order and report missing ids")
+    void getUsersByIds_ShouldKeepRequestOrderAndReportMissing() {
+        UserResponseDto userResponseDto2 = new UserResponseDto(2L, "Jane Doe", "jane.doe@example.com");
+        when(userRepository.findResponsesByIdIn(Set.of(2L, 5L, 1L))).thenReturn(List.of(userResponseDto, userResponseDto2));
+
+        UserLookupResponseDto result = userService.getUsersByIds(List.of(2L, 5L, 1L, 2L));
+
+        assertEquals(List.of(userResponseDto2, userResponseDto), result.items());
+        assertEquals(List.of(5L), result.missingIds());
+        verify(userRepository).findResponsesByIdIn(Set.of(2L, 5L, 1L));
+    }
+
+    @Test
+    @DisplayName("Should throw TooManyIdsException when more ids than allowed are requested")
+    void getUsersByIds_WhenTooManyIds_ShouldThrowTooManyIdsException() {
+        assertThrows(TooManyIdsException.class, () -> userService.getUsersByIds(List.of(1L, 2L, 3L, 4L)));
+
+        verify(userRepository, never()).findResponsesByIdIn(any());
     }
 
     @Test
     @DisplayName("Should delete user successfully when user exists")
     void deleteUser_ShouldDeleteUser_WhenUserExists() {
-        when(userRepository.deleteUserById(USER_ID)).thenReturn(1);
+        when(userRepository.deleteReturningById(USER_ID)).thenReturn(Optional.of(user));
 
         assertDoesNotThrow(() -> userService.deleteUser(USER_ID));
 
-        verify(userRepository).deleteUserById(USER_ID);
+        verify(userRepository).deleteReturningById(USER_ID);
+        verify(userStatsService).recordDeleted(26, LocalDate.of(2025, 1, 1));
+        verify(userOutboxRepository).save(argThat(event ->
+                event.getEvent_type() == UserChangeType.DELETED && USER_ID.equals(event.getUser_id())));
     }
 
     @Test
     @DisplayName("Should throw UserNotFoundException when deleting non-existent user")
     void deleteUser_WhenUserDoesNotExist_ShouldThrowUserNotFoundException() {
-        when(userRepository.deleteUserById(USER_ID)).thenReturn(0);
+        when(userRepository.deleteReturningById(USER_ID)).thenReturn(Optional.empty());
 
         UserNotFoundException exception = assertThrows(
                 UserNotFoundException.class,
@@ -222,6 +560,20 @@ class UserServiceTests {
         );
 
         assertEquals("User c id:" + USER_ID + " не найден", exception.getMessage());
-        verify(userRepository).deleteUserById(USER_ID);
+        verify(userRepository).deleteReturningById(USER_ID);
+        verify(userOutboxRepository, never()).save(any(UserOutboxEvent.class));
+        verifyNoInteractions(userStatsService);
+    }
+
+    private static UserSearchRow idRow(UserResponseDto user) {
+        return new UserSearchRow(user, new UserKeyset(user.id(), user.id()));
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.WAITING, thread.getState());
     }
 }
@@ -0,0 +1,107 @@
+package org.intensiv.userapi.service;
+
+import org.intensiv.userapi.config.UserStatsProperties;
+import org.intensiv.userapi.dto.response.AgeBucketDto;
+import org.intensiv.userapi.dto.response.DailySignupsDto;
+import org.intensiv.userapi.dto.response.UserStatsResponseDto;
+import org.intensiv.userapi.repository.UserAgeCount;
+import org.intensiv.userapi.repository.UserRepository;
+import org.intensiv.userapi.repository.UserSignupCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatsServiceTests {
+    private static final LocalDate TODAY = LocalDate.now(ZoneOffset.UTC);
+    @Mock
+    private UserRepository userRepository;
+    private UserStatsService userStatsService;
+
+    @BeforeEach
+    void setUp() {
+        userStatsService = new UserStatsService(userRepository, new UserStatsProperties(10, 30, Duration.ofMinutes(10)));
+    }
+
+    @Test
+    @DisplayName("Should keep count, age histogram and signups up to date without queries")
+    void record_ShouldUpdateStatisticsIncrementally() {
+        userStatsService.recordCreated(26, TODAY, 1);
+        userStatsService.recordCreated(27, TODAY, 1);
+        userStatsService.recordCreated(41, TODAY.minusDays(1), 1);
+        userStatsService.recordAgeChanged(27, 35);
+        userStatsService.recordDeleted(41, TODAY.minusDays(1));
+
+        UserStatsResponseDto stats = userStatsService.getStats(false);
+
+        assertEquals(2, stats.count());
+        assertNull(stats.approximateCount());
+        assertEquals(16, stats.ageHistogram().size());
+        assertEquals(new AgeBucketDto(20, 29, 1), stats.ageHistogram().get(2));
+        assertEquals(new AgeBucketDto(30, 39, 1), stats.ageHistogram().get(3));
+        assertEquals(new AgeBucketDto(40, 49, 0), stats.ageHistogram().get(4));
+        assertEquals(new AgeBucketDto(150, 150, 0), stats.ageHistogram().get(15));
+        assertEquals(List.of(new DailySignupsDto(TODAY.minusDays(1), 0), new DailySignupsDto(TODAY, 2)),
+                stats.dailySignups());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should apply changes only after transaction commit")
+    void record_InsideTransaction_ShouldWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userStatsService.recordCreated(26, TODAY, 1);
+            userStatsService.recordDeleted(26, TODAY);
+            assertEquals(0, userStatsService.getStats(false).count());
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.get(0).afterCommit();
+            assertEquals(1, userStatsService.getStats(false).count());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should replace in-memory statistics with database aggregates on reconcile")
+    void reconcile_ShouldReplaceStatistics() {
+        userStatsService.recordCreated(26, TODAY, 5);
+        when(userRepository.countByAge()).thenReturn(List.of(new UserAgeCount(26, 2L), new UserAgeCount(70, 1L)));
+        when(userRepository.countSignupsSince(any(LocalDateTime.class)))
+                .thenReturn(List.of(new UserSignupCount(TODAY, 3L)));
+
+        userStatsService.reconcile();
+        UserStatsResponseDto stats = userStatsService.getStats(false);
+
+        assertEquals(3, stats.count());
+        assertEquals(2, stats.ageHistogram().get(2).users());
+        assertEquals(1, stats.ageHistogram().get(7).users());
+        assertEquals(List.of(new DailySignupsDto(TODAY, 3)), stats.dailySignups());
+        assertNotNull(stats.reconciledAt());
+        verify(userRepository).countSignupsSince(TODAY.minusDays(29).atStartOfDay());
+    }
+
+    @Test
+    @DisplayName("Should read approximate count from catalog statistics when requested")
+    void getStats_WithApproximate_ShouldReturnEstimate() {
+        when(userRepository.estimateCount()).thenReturn(1_000_000L);
+
+        assertEquals(1_000_000L, userStatsService.getStats(true).approximateCount());
+    }
+}
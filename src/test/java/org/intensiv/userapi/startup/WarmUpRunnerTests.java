@@ -0,0 +1,53 @@
+package org.intensiv.userapi.startup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.intensiv.userapi.config.WarmUpProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarmUpRunnerTests {
+    private final WarmUpProperties properties = new WarmUpProperties(true, 2, 1, Duration.ofSeconds(10));
+
+    @Mock
+    private HikariDataSource pool;
+    @Mock
+    private Connection connection;
+
+    @Test
+    @DisplayName("Без HTTP-сервера прогрев пропускается")
+    void runWithoutServerPort() throws Exception {
+        new WarmUpRunner(properties, new MockEnvironment(), List.of(pool)).run(new DefaultApplicationArguments());
+
+        verifyNoInteractions(pool);
+    }
+
+    @Test
+    @DisplayName("Пул заполняется до minimum-idle и соединения возвращаются, недоступный сервер не прерывает старт")
+    void runFillsConnectionPool() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        when(pool.getMinimumIdle()).thenReturn(3);
+        when(pool.getConnection()).thenReturn(connection);
+        MockEnvironment environment = new MockEnvironment().withProperty("local.server.port", Integer.toString(port));
+
+        new WarmUpRunner(properties, environment, List.of(pool)).run(new DefaultApplicationArguments());
+
+        verify(pool, times(3)).getConnection();
+        verify(connection, times(3)).close();
+    }
+}
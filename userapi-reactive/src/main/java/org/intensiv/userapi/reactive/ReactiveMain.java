@@ -0,0 +1,16 @@
+package org.intensiv.userapi.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+// Маппер и обработчик ошибок общие с основным модулем, поэтому их пакеты сканируются явно
+@SpringBootApplication(scanBasePackages = {"org.intensiv.userapi.reactive", "org.intensiv.userapi.mapper",
+        "org.intensiv.userapi.exception"})
+@Slf4j
+public class ReactiveMain {
+    public static void main(String[] args) {
+        log.info("Запуск user-service (WebFlux)");
+        SpringApplication.run(ReactiveMain.class, args);
+    }
+}
@@ -0,0 +1,58 @@
+package org.intensiv.userapi.reactive.config;
+
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+// Jackson2CborEncoder не поддерживает encode() для потока, а EncoderHttpMessageWriter вызывает именно его,
+// поэтому значение кодируется целиком через encodeValue. Пишет только явно выбранный application/cbor,
+// чтобы при Accept: */* ответ оставался JSON.
+@RequiredArgsConstructor
+class CborHttpMessageWriter implements HttpMessageWriter<Object> {
+    private final Jackson2CborEncoder encoder;
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return List.of(MediaType.APPLICATION_CBOR);
+    }
+
+    // Без типа носителя BaseCodecConfigurer спрашивает про Object, чтобы отнести писатель к объектным:
+    // тогда он стоит после писателей byte[], String и Resource и не перехватывает их
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        if (mediaType == null) {
+            return elementType.toClass() == Object.class;
+        }
+        return MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)
+                && encoder.canEncode(elementType, MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<?> inputStream, ResolvableType elementType, MediaType mediaType,
+                            ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        boolean single = inputStream instanceof Mono;
+        Mono<?> value = single ? (Mono<?>) inputStream : Flux.from(inputStream).collectList();
+        ResolvableType valueType = single ? elementType : ResolvableType.forClassWithGenerics(List.class, elementType);
+        message.getHeaders().setContentType(MediaType.APPLICATION_CBOR);
+        return value.singleOptional().flatMap(optional -> {
+            if (optional.isEmpty()) {
+                message.getHeaders().setContentLength(0);
+                return message.setComplete();
+            }
+            DataBuffer buffer = encoder.encodeValue(optional.get(), message.bufferFactory(), valueType,
+                    MediaType.APPLICATION_CBOR, hints);
+            message.getHeaders().setContentLength(buffer.readableByteCount());
+            return message.writeWith(Mono.just(buffer));
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package org.intensiv.userapi.reactive.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.intensiv.userapi.config.ExceptionProperties;
+import org.intensiv.userapi.config.MultiGetProperties;
+import org.intensiv.userapi.config.PaginationProperties;
+import org.intensiv.userapi.exception.UserApiException;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+@EnableConfigurationProperties({PaginationProperties.class, MultiGetProperties.class, ExceptionProperties.class})
+public class ReactiveUserApiConfig {
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    private static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    public ReactiveUserApiConfig(ExceptionProperties exceptionProperties) {
+        UserApiException.setStackTraces(exceptionProperties.stackTraces());
+    }
+
+    // Как ContentFormatConfig в основном модуле: CBOR и Smile на тех же настройках spring.jackson.*.
+    // Типы передаются явно: без них кодеки Jackson объявляют себя JSON и перехватывают application/json.
+    // Smile встает в стандартные кодеки после JSON; для CBOR свой писатель, см. CborHttpMessageWriter
+    @Bean
+    public CodecCustomizer binaryFormatCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+        return configurer -> {
+            ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+            ObjectMapper smileMapper = builder.factory(new SmileFactory()).build();
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+            configurer.customCodecs().register(new CborHttpMessageWriter(
+                    new Jackson2CborEncoder(cborMapper, MediaType.APPLICATION_CBOR)));
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+        };
+    }
+}
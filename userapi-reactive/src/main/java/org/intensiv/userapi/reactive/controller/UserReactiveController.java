@@ -0,0 +1,142 @@
+package org.intensiv.userapi.reactive.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.intensiv.userapi.controller.UserETags;
+import org.intensiv.userapi.dto.request.CreateUserRequestDto;
+import org.intensiv.userapi.dto.request.UpdateUserRequestDto;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.request.UserLookupRequestDto;
+import org.intensiv.userapi.dto.response.UserLookupResponseDto;
+import org.intensiv.userapi.dto.response.UserPageResponseDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.exception.PreconditionFailedException;
+import org.intensiv.userapi.reactive.service.UserReactiveService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.intensiv.userapi.reactive.config.ReactiveUserApiConfig.APPLICATION_SMILE_VALUE;
+
+// Контракт UserController основного модуля; пакетное создание, импорт, статистика и лента изменений
+// остаются только там. Дополнительно список отдается потоком NDJSON с учетом backpressure.
+@RequiredArgsConstructor
+@Validated
+@RestController
+@RequestMapping(path = "/userapi/users", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        APPLICATION_SMILE_VALUE})
+public class UserReactiveController {
+    private static final String SORT_PATTERN = "-?(id|name|age|created_at)";
+
+    private final UserReactiveService userService;
+
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public Mono<UserResponseDto> createUser(@RequestBody @Valid CreateUserRequestDto dto) {
+        return userService.createUser(dto);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<UserResponseDto>> getUser(@PathVariable @NotNull @Min(1) Long id,
+                                                         @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                                         ServerWebExchange exchange) {
+        return userService.getUser(id)
+                .flatMap(user -> {
+                    exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                    return user.version() != null
+                            && exchange.checkNotModified(UserETags.of(user.version(), accepted(accept)))
+                            ? Mono.empty()
+                            : Mono.just(withValidators(user, accept));
+                });
+    }
+
+    @GetMapping("/by-email")
+    public Mono<ResponseEntity<UserResponseDto>> getUserByEmail(@RequestParam @NotBlank @Email String email,
+                                                                @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        return userService.getUserByEmail(email).map(user -> withValidators(user, accept));
+    }
+
+    @GetMapping
+    public Mono<UserPageResponseDto> getUsers(@Valid UserFilterRequestDto filter,
+                                              @RequestParam(required = false) @Pattern(regexp = SORT_PATTERN) String sort,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(required = false) @Min(1) Integer limit) {
+        return userService.getUsers(filter, sort, after, limit);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserResponseDto> streamUsers(@Valid UserFilterRequestDto filter,
+                                             @RequestParam(required = false) @Pattern(regexp = SORT_PATTERN) String sort) {
+        return userService.streamUsers(filter, sort);
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<UserLookupResponseDto> getUsersByIds(@RequestParam @NotEmpty List<@NotNull @Min(1) Long> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
+    @PostMapping(path = "/lookup", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public Mono<UserLookupResponseDto> lookupUsers(@RequestBody @Valid UserLookupRequestDto dto) {
+        return userService.getUsersByIds(dto.ids());
+    }
+
+    @PatchMapping(path = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public Mono<ResponseEntity<UserResponseDto>> updateUser(@PathVariable @NotNull @Min(1) Long id,
+                                                            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                                            @RequestBody @Valid UpdateUserRequestDto dto) {
+        return Mono.defer(() -> userService.updateUser(id, dto, expectedVersion(id, ifMatch)))
+                .map(user -> withValidators(user, accept));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> delete(@PathVariable @NotNull @Min(1) Long id) {
+        return userService.deleteUser(id);
+    }
+
+    private static ResponseEntity<UserResponseDto> withValidators(UserResponseDto user, String accept) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (user.version() != null) {
+            response.eTag(UserETags.of(user.version(), accepted(accept)));
+        }
+        if (user.updatedAt() != null) {
+            response.lastModified(user.updatedAt().toInstant(ZoneOffset.UTC));
+        }
+        return response.body(user);
+    }
+
+    private static List<MediaType> accepted(String accept) {
+        return MediaType.parseMediaTypes(accept);
+    }
+
+    private static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        Long version = UserETags.version(tag);
+        // слабый или непохожий на версию ETag не может совпасть ни с одной версией
+        if (version == null) {
+            throw new PreconditionFailedException("Версия пользователя id:" + id + " не совпадает с " + tag);
+        }
+        return version;
+    }
+}
@@ -0,0 +1,24 @@
+package org.intensiv.userapi.reactive.exception;
+
+import lombok.RequiredArgsConstructor;
+import org.intensiv.userapi.exception.GlobalExceptionHandler;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+// Остальные ошибки обрабатывает общий GlobalExceptionHandler; здесь только исключение валидации WebFlux,
+// чтобы тело ответа совпадало с ответом основного модуля
+@ControllerAdvice
+@RequiredArgsConstructor
+public class ReactiveExceptionHandler {
+    private final GlobalExceptionHandler globalExceptionHandler;
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ProblemDetail> handleValidationException(WebExchangeBindException ex) {
+        return globalExceptionHandler.handleValidationException(
+                new MethodArgumentNotValidException(ex.getMethodParameter(), ex));
+    }
+}
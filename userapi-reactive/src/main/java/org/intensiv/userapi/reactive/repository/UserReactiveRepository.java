@@ -0,0 +1,205 @@
+package org.intensiv.userapi.reactive.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.entity.User;
+import org.intensiv.userapi.entity.UserChangeType;
+import org.intensiv.userapi.repository.UserKeyset;
+import org.intensiv.userapi.repository.UserSearchRow;
+import org.intensiv.userapi.repository.UserSortField;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Те же запросы, что у JPA-репозитория основного модуля, но через неблокирующий драйвер R2DBC
+@Repository
+@RequiredArgsConstructor
+public class UserReactiveRepository {
+    private static final String RESPONSE_COLUMNS = "id, name, email, version, updated_at";
+    // Сколько строк драйвер запрашивает у курсора Postgres за раз при потоковой выдаче
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<UserResponseDto> findResponseById(long id) {
+        return databaseClient.sql("SELECT " + RESPONSE_COLUMNS + " FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(UserReactiveRepository::toResponse)
+                .one();
+    }
+
+    public Mono<UserResponseDto> findResponseByEmail(String email) {
+        return databaseClient.sql("SELECT " + RESPONSE_COLUMNS + " FROM users WHERE lower(email) = :email")
+                .bind("email", email)
+                .map(UserReactiveRepository::toResponse)
+                .one();
+    }
+
+    public Flux<UserResponseDto> findResponsesByIdIn(Collection<Long> ids) {
+        return databaseClient.sql("SELECT " + RESPONSE_COLUMNS + " FROM users WHERE id = ANY(:ids)")
+                .bind("ids", ids.toArray(Long[]::new))
+                .map(UserReactiveRepository::toResponse)
+                .all();
+    }
+
+    public Mono<Boolean> existsById(long id) {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM users WHERE id = :id)")
+                .bind("id", id)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    public Mono<User> insert(User user) {
+        return databaseClient.sql("""
+                        INSERT INTO users (name, email, age, created_at, updated_at)
+                        VALUES (:name, :email, :age, localtimestamp, localtimestamp)
+                        RETURNING *""")
+                .bind("name", user.getName())
+                .bind("email", user.getEmail())
+                .bind("age", user.getAge())
+                .map(UserReactiveRepository::toUser)
+                .one();
+    }
+
+    public Mono<User> updateNonNullFields(long id, String name, String email, Integer age, Long expectedVersion) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                        UPDATE users
+                        SET name = coalesce(cast(:name AS varchar), name),
+                            email = coalesce(cast(:email AS varchar), email),
+                            age = coalesce(cast(:age AS integer), age),
+                            version = version + 1,
+                            updated_at = localtimestamp
+                        WHERE id = :id
+                          AND (cast(:expectedVersion AS bigint) IS NULL OR version = :expectedVersion)
+                        RETURNING *""")
+                .bind("id", id);
+        spec = bindNullable(spec, "name", name, String.class);
+        spec = bindNullable(spec, "email", email, String.class);
+        spec = bindNullable(spec, "age", age, Integer.class);
+        spec = bindNullable(spec, "expectedVersion", expectedVersion, Long.class);
+        return spec.map(UserReactiveRepository::toUser).one();
+    }
+
+    public Mono<User> deleteReturningById(long id) {
+        return databaseClient.sql("DELETE FROM users WHERE id = :id RETURNING *")
+                .bind("id", id)
+                .map(UserReactiveRepository::toUser)
+                .one();
+    }
+
+    public Mono<Void> saveOutboxEvent(UserChangeType eventType, User user) {
+        return databaseClient.sql("""
+                        INSERT INTO user_outbox (user_id, event_type, name, email, age, version)
+                        VALUES (:userId, :eventType, :name, :email, :age, :version)""")
+                .bind("userId", user.getId())
+                .bind("eventType", eventType.name())
+                .bind("name", user.getName())
+                .bind("email", user.getEmail())
+                .bind("age", user.getAge())
+                .bind("version", user.getVersion())
+                .then();
+    }
+
+    public Mono<Void> saveDeletedEvent(long userId) {
+        return databaseClient.sql("INSERT INTO user_outbox (user_id, event_type) VALUES (:userId, :eventType)")
+                .bind("userId", userId)
+                .bind("eventType", UserChangeType.DELETED.name())
+                .then();
+    }
+
+    // limit == null — потоковая выдача всех подходящих строк: драйвер читает курсор порциями
+    // по STREAM_FETCH_SIZE и запрашивает следующую, только когда подписчик готов принять данные
+    public Flux<UserSearchRow> search(UserFilterRequestDto filter, UserSortField sortField, Sort.Direction direction,
+                                      UserKeyset after, Integer limit) {
+        String sortColumn = sortField.attribute();
+        String order = direction.isAscending() ? "ASC" : "DESC";
+        String comparison = direction.isAscending() ? ">" : "<";
+        StringBuilder sql = new StringBuilder("SELECT " + RESPONSE_COLUMNS + ", " + sortColumn + " AS sort_value"
+                + " FROM users WHERE true");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (filter.minAge() != null) {
+            sql.append(" AND age >= :minAge");
+            params.put("minAge", filter.minAge());
+        }
+        if (filter.maxAge() != null) {
+            sql.append(" AND age <= :maxAge");
+            params.put("maxAge", filter.maxAge());
+        }
+        if (filter.createdFrom() != null) {
+            sql.append(" AND created_at >= :createdFrom");
+            params.put("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            sql.append(" AND created_at < :createdTo");
+            params.put("createdTo", filter.createdTo());
+        }
+        if (filter.email() != null) {
+            sql.append(" AND lower(email) = :email");
+            params.put("email", filter.email());
+        }
+        if (after != null && sortField == UserSortField.ID) {
+            sql.append(" AND id ").append(comparison).append(" :afterId");
+            params.put("afterId", after.id());
+        } else if (after != null) {
+            // Как в UserSearchRepositoryImpl: нестрогое условие по значению попадает в Index Cond (value, id)
+            sql.append(" AND ").append(sortColumn).append(' ').append(comparison).append("= :afterValue")
+                    .append(" AND (").append(sortColumn).append(' ').append(comparison).append(" :afterValue")
+                    .append(" OR id ").append(comparison).append(" :afterId)");
+            params.put("afterValue", after.value());
+            params.put("afterId", after.id());
+        }
+        sql.append(" ORDER BY ");
+        if (sortField != UserSortField.ID) {
+            sql.append(sortColumn).append(' ').append(order).append(", ");
+        }
+        sql.append("id ").append(order);
+        if (limit != null) {
+            sql.append(" LIMIT :limit");
+            params.put("limit", limit);
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        if (limit == null) {
+            spec = spec.filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE));
+        }
+        return spec.map(UserReactiveRepository::toSearchRow).all();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                                  Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static UserResponseDto toResponse(Readable row) {
+        return new UserResponseDto(row.get("id", Long.class), row.get("name", String.class),
+                row.get("email", String.class), row.get("version", Long.class),
+                row.get("updated_at", LocalDateTime.class));
+    }
+
+    private static UserSearchRow toSearchRow(Readable row) {
+        UserResponseDto user = toResponse(row);
+        return new UserSearchRow(user, new UserKeyset((Comparable<?>) row.get("sort_value"), user.id()));
+    }
+
+    private static User toUser(Readable row) {
+        User user = new User(row.get("name", String.class), row.get("email", String.class),
+                row.get("age", Integer.class));
+        user.setId(row.get("id", Long.class));
+        user.setCreated_at(row.get("created_at", LocalDateTime.class));
+        user.setUpdated_at(row.get("updated_at", LocalDateTime.class));
+        user.setVersion(row.get("version", Long.class));
+        return user;
+    }
+}
@@ -0,0 +1,171 @@
+package org.intensiv.userapi.reactive.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.intensiv.userapi.config.MultiGetProperties;
+import org.intensiv.userapi.config.PaginationProperties;
+import org.intensiv.userapi.dto.request.CreateUserRequestDto;
+import org.intensiv.userapi.dto.request.Emails;
+import org.intensiv.userapi.dto.request.UpdateUserRequestDto;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.response.UserLookupResponseDto;
+import org.intensiv.userapi.dto.response.UserPageResponseDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.entity.UserChangeType;
+import org.intensiv.userapi.exception.DuplicateEmailException;
+import org.intensiv.userapi.exception.PreconditionFailedException;
+import org.intensiv.userapi.exception.TooManyIdsException;
+import org.intensiv.userapi.exception.UserNotFoundException;
+import org.intensiv.userapi.mapper.UserMapper;
+import org.intensiv.userapi.reactive.repository.UserReactiveRepository;
+import org.intensiv.userapi.repository.UserKeyset;
+import org.intensiv.userapi.repository.UserSearchRow;
+import org.intensiv.userapi.repository.UserSortField;
+import org.intensiv.userapi.service.UserCursors;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Поведение повторяет UserService основного модуля; кэша, статистики и пакетных операций здесь нет
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserReactiveService {
+    private final UserReactiveRepository userRepository;
+    private final UserMapper userMapper;
+    private final PaginationProperties paginationProperties;
+    private final MultiGetProperties multiGetProperties;
+
+    @Transactional
+    public Mono<UserResponseDto> createUser(CreateUserRequestDto requestDto) {
+        log.debug("Запрос на создание пользователя name={} email={}", requestDto.name(), requestDto.email());
+        return userRepository.insert(userMapper.toUserEntity(requestDto))
+                .onErrorMap(e -> e instanceof DataIntegrityViolationException
+                                && DuplicateEmailException.isCausedByDuplicateEmail(e), e ->
+                        new DuplicateEmailException("Пользователь с email " + requestDto.email() + " уже существует"))
+                .flatMap(user -> userRepository.saveOutboxEvent(UserChangeType.CREATED, user).thenReturn(user))
+                .map(userMapper::toUserResponseDto)
+                .doOnNext(user -> log.info("Пользователь создан name={} email={}", user.name(), user.email()));
+    }
+
+    public Mono<UserResponseDto> getUser(Long id) {
+        log.debug("Получение пользователя по id={}", id);
+        return userRepository.findResponseById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)));
+    }
+
+    public Mono<UserResponseDto> getUserByEmail(String email) {
+        String normalizedEmail = Emails.normalize(email);
+        log.debug("Получение пользователя по email={}", normalizedEmail);
+        return userRepository.findResponseByEmail(normalizedEmail)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("User c email:" + normalizedEmail + " не найден")));
+    }
+
+    public Mono<UserLookupResponseDto> getUsersByIds(List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > multiGetProperties.maxIds()) {
+            return Mono.error(new TooManyIdsException("Нельзя запросить больше " + multiGetProperties.maxIds()
+                    + " пользователей за раз, передано " + uniqueIds.size()));
+        }
+        log.debug("Получение пользователей по списку id count={}", uniqueIds.size());
+
+        return userRepository.findResponsesByIdIn(uniqueIds)
+                .collect(Collectors.toMap(UserResponseDto::id, Function.identity()))
+                .map(usersById -> toLookupResponse(uniqueIds, usersById));
+    }
+
+    public Mono<UserPageResponseDto> getUsers(UserFilterRequestDto filter, String sort, String after, Integer limit) {
+        return Mono.defer(() -> {
+            UserSortField sortField = sortField(sort);
+            Sort.Direction direction = direction(sort);
+            UserKeyset keyset = after == null ? null : UserCursors.decode(after, sortField);
+            int pageSize = limit == null
+                    ? paginationProperties.defaultLimit()
+                    : Math.min(limit, paginationProperties.maxLimit());
+            log.debug("Получение страницы пользователей filter={} sort={} {} after={} limit={}",
+                    filter, sortField, direction, keyset, pageSize);
+            return userRepository.search(filter, sortField, direction, keyset, pageSize + 1)
+                    .collectList()
+                    .map(rows -> toPage(rows, pageSize, sortField));
+        });
+    }
+
+    public Flux<UserResponseDto> streamUsers(UserFilterRequestDto filter, String sort) {
+        log.debug("Потоковая выдача пользователей filter={} sort={}", filter, sort);
+        return userRepository.search(filter, sortField(sort), direction(sort), null, null)
+                .map(UserSearchRow::user);
+    }
+
+    @Transactional
+    public Mono<UserResponseDto> updateUser(Long id, UpdateUserRequestDto updatedUserDto, Long expectedVersion) {
+        log.debug("Обновление пользователя id={} name={} expectedVersion={}", id, updatedUserDto.name(), expectedVersion);
+        return userRepository.updateNonNullFields(id, updatedUserDto.name(), updatedUserDto.email(), updatedUserDto.age(),
+                        expectedVersion)
+                .onErrorMap(e -> e instanceof DataIntegrityViolationException
+                                && DuplicateEmailException.isCausedByDuplicateEmail(e), e ->
+                        new DuplicateEmailException("Пользователь с email " + updatedUserDto.email() + " уже существует"))
+                .switchIfEmpty(Mono.defer(() -> expectedVersion == null
+                        ? Mono.error(new UserNotFoundException(id))
+                        : userRepository.existsById(id).flatMap(exists -> Mono.error(exists
+                        ? new PreconditionFailedException("Версия пользователя id:" + id + " не совпадает с " + expectedVersion)
+                        : new UserNotFoundException(id)))))
+                .flatMap(user -> userRepository.saveOutboxEvent(UserChangeType.UPDATED, user).thenReturn(user))
+                .doOnNext(user -> log.info("Пользователь обновлен id={}", user.getId()))
+                .map(userMapper::toUserResponseDto);
+    }
+
+    @Transactional
+    public Mono<Void> deleteUser(Long id) {
+        log.debug("Удаление пользователя id={}", id);
+        return userRepository.deleteReturningById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+                .flatMap(user -> userRepository.saveDeletedEvent(id))
+                .doOnSuccess(ignored -> log.info("Пользователь удален id={}", id));
+    }
+
+    private static UserSortField sortField(String sort) {
+        if (sort == null) {
+            return UserSortField.ID;
+        }
+        return UserSortField.fromParameter(sort.startsWith("-") ? sort.substring(1) : sort);
+    }
+
+    private static Sort.Direction direction(String sort) {
+        return sort != null && sort.startsWith("-") ? Sort.Direction.DESC : Sort.Direction.ASC;
+    }
+
+    private static UserPageResponseDto toPage(List<UserSearchRow> rows, int pageSize, UserSortField sortField) {
+        boolean hasNext = rows.size() > pageSize;
+        List<UserResponseDto> items = rows.stream()
+                .limit(pageSize)
+                .map(UserSearchRow::user)
+                .toList();
+        String nextCursor = hasNext ? UserCursors.encode(rows.get(pageSize - 1).keyset(), sortField) : null;
+        return new UserPageResponseDto(items, nextCursor);
+    }
+
+    private static UserLookupResponseDto toLookupResponse(Set<Long> uniqueIds, Map<Long, UserResponseDto> usersById) {
+        List<UserResponseDto> items = new ArrayList<>(usersById.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            UserResponseDto user = usersById.get(id);
+            if (user == null) {
+                missingIds.add(id);
+            } else {
+                items.add(user);
+            }
+        }
+        return new UserLookupResponseDto(items, missingIds);
+    }
+}
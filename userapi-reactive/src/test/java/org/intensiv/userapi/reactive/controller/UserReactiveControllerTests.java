@@ -0,0 +1,75 @@
+package org.intensiv.userapi.reactive.controller;
+
+import org.intensiv.userapi.controller.UserApiContractTests;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.reactive.config.ReactiveUserApiConfig;
+import org.intensiv.userapi.reactive.service.UserReactiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Общие эндпоинты проверяет UserApiContractTests основного модуля; здесь только поток NDJSON
+@WebFluxTest(UserReactiveController.class)
+@Import(ReactiveUserApiConfig.class)
+public class UserReactiveControllerTests extends UserApiContractTests {
+    @MockitoBean
+    private UserReactiveService userService;
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Override
+    protected WebTestClient webTestClient() {
+        return webTestClient;
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(userService.createUser(any()))
+                .thenAnswer(call -> Mono.fromCallable(() -> users.createUser(call.getArgument(0))));
+        when(userService.getUser(any()))
+                .thenAnswer(call -> Mono.fromCallable(() -> users.getUser(call.getArgument(0))));
+        when(userService.getUserByEmail(any()))
+                .thenAnswer(call -> Mono.fromCallable(() -> users.getUserByEmail(call.getArgument(0))));
+        when(userService.getUsersByIds(any()))
+                .thenAnswer(call -> Mono.fromCallable(() -> users.getUsersByIds(call.getArgument(0))));
+        when(userService.getUsers(any(), any(), any(), any())).thenAnswer(call -> Mono.fromCallable(() -> users.getUsers(
+                call.getArgument(0), call.getArgument(1), call.getArgument(2), call.getArgument(3))));
+        when(userService.updateUser(any(), any(), any())).thenAnswer(call -> Mono.fromCallable(() -> users.updateUser(
+                call.getArgument(0), call.getArgument(1), call.getArgument(2))));
+        when(userService.deleteUser(any()))
+                .thenAnswer(call -> Mono.fromRunnable(() -> users.deleteUser(call.getArgument(0))));
+    }
+
+    @Test
+    @DisplayName("Should stream users as NDJSON when requested")
+    void streamUsers_WithNdjsonAccept_StreamsUsers() {
+        UserResponseDto second = new UserResponseDto(2L, "Красиков Роман", "roman.krasikov@gmail.com");
+        when(userService.streamUsers(UserFilterRequestDto.NONE, "name")).thenReturn(Flux.just(userResponseDto, second));
+
+        Flux<UserResponseDto> body = webTestClient.get().uri("/userapi/users?sort=name")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(UserResponseDto.class)
+                .getResponseBody();
+
+        StepVerifier.create(body)
+                .expectNext(userResponseDto, second)
+                .verifyComplete();
+        verify(users, never()).getUsers(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,205 @@
+package org.intensiv.userapi.reactive.service;
+
+import org.intensiv.userapi.config.MultiGetProperties;
+import org.intensiv.userapi.config.PaginationProperties;
+import org.intensiv.userapi.dto.request.CreateUserRequestDto;
+import org.intensiv.userapi.dto.request.UpdateUserRequestDto;
+import org.intensiv.userapi.dto.request.UserFilterRequestDto;
+import org.intensiv.userapi.dto.response.UserLookupResponseDto;
+import org.intensiv.userapi.dto.response.UserPageResponseDto;
+import org.intensiv.userapi.dto.response.UserResponseDto;
+import org.intensiv.userapi.entity.User;
+import org.intensiv.userapi.entity.UserChangeType;
+import org.intensiv.userapi.exception.DuplicateEmailException;
+import org.intensiv.userapi.exception.InvalidCursorException;
+import org.intensiv.userapi.exception.PreconditionFailedException;
+import org.intensiv.userapi.exception.TooManyIdsException;
+import org.intensiv.userapi.exception.UserNotFoundException;
+import org.intensiv.userapi.mapper.UserMapper;
+import org.intensiv.userapi.reactive.repository.UserReactiveRepository;
+import org.intensiv.userapi.repository.UserKeyset;
+import org.intensiv.userapi.repository.UserSearchRow;
+import org.intensiv.userapi.repository.UserSortField;
+import org.intensiv.userapi.service.UserCursors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserReactiveServiceTests {
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private UserReactiveRepository userRepository;
+    private UserReactiveService userService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserReactiveService(userRepository, Mappers.getMapper(UserMapper.class),
+                new PaginationProperties(2, 100), new MultiGetProperties(3));
+        user = new User("Роман Красиков", "krasikov.roman@gmail.com", 26);
+        user.setId(USER_ID);
+        user.setVersion(0L);
+        user.setCreated_at(LocalDateTime.of(2024, 5, 1, 12, 30));
+        user.setUpdated_at(user.getCreated_at());
+    }
+
+    @Test
+    @DisplayName("Should create user and write CREATED event to outbox")
+    void createUser_ShouldSaveOutboxEvent() {
+        when(userRepository.insert(any(User.class))).thenReturn(Mono.just(user));
+        when(userRepository.saveOutboxEvent(UserChangeType.CREATED, user)).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.createUser(new CreateUserRequestDto("Роман Красиков", "krasikov.roman@gmail.com", 26)))
+                .expectNext(new UserResponseDto(USER_ID, "Роман Красиков", "krasikov.roman@gmail.com", 0L,
+                        user.getUpdated_at()))
+                .verifyComplete();
+        verify(userRepository).saveOutboxEvent(UserChangeType.CREATED, user);
+    }
+
+    @Test
+    @DisplayName("Should map unique violation to DuplicateEmailException without writing outbox")
+    void createUser_WhenEmailExists_ShouldFailWithDuplicateEmail() {
+        when(userRepository.insert(any(User.class))).thenReturn(Mono.error(new DataIntegrityViolationException("uq_users_email_lower")));
+
+        StepVerifier.create(userService.createUser(new CreateUserRequestDto("Роман", "duplicate@gmail.com", 20)))
+                .expectErrorMatches(e -> e instanceof DuplicateEmailException
+                        && e.getMessage().equals("Пользователь с email duplicate@gmail.com уже существует"))
+                .verify();
+        verify(userRepository, never()).saveOutboxEvent(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should fail with UserNotFoundException when user doesn't exist")
+    void getUser_WhenUserDoesNotExist_ShouldFail() {
+        when(userRepository.findResponseById(USER_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.getUser(USER_ID))
+                .expectErrorMatches(e -> e instanceof UserNotFoundException
+                        && e.getMessage().equals("User c id:" + USER_ID + " не найден"))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Should query normalized email")
+    void getUserByEmail_ShouldQueryLowerCasedEmail() {
+        UserResponseDto found = new UserResponseDto(USER_ID, "Роман Красиков", "krasikov.roman@gmail.com");
+        when(userRepository.findResponseByEmail("krasikov.roman@gmail.com")).thenReturn(Mono.just(found));
+
+        StepVerifier.create(userService.getUserByEmail("Krasikov.Roman@Gmail.com"))
+                .expectNext(found)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should return page with cursor compatible with the servlet variant")
+    void getUsers_WhenMoreUsersExist_ShouldReturnNextCursor() {
+        List<UserSearchRow> rows = List.of(row(1L), row(2L), row(3L));
+        when(userRepository.search(UserFilterRequestDto.NONE, UserSortField.ID, Sort.Direction.ASC, null, 3))
+                .thenReturn(Flux.fromIterable(rows));
+
+        StepVerifier.create(userService.getUsers(UserFilterRequestDto.NONE, null, null, null))
+                .expectNext(new UserPageResponseDto(List.of(rows.get(0).user(), rows.get(1).user()),
+                        UserCursors.encode(new UserKeyset(2L, 2L), UserSortField.ID)))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should fail with InvalidCursorException for malformed cursor")
+    void getUsers_WithInvalidCursor_ShouldFail() {
+        StepVerifier.create(userService.getUsers(UserFilterRequestDto.NONE, null, "bad!", null))
+                .expectError(InvalidCursorException.class)
+                .verify();
+        verify(userRepository, never()).search(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should report missing ids in requested order")
+    void getUsersByIds_ShouldReturnItemsAndMissingIds() {
+        when(userRepository.findResponsesByIdIn(any())).thenReturn(Flux.just(row(3L).user()));
+
+        StepVerifier.create(userService.getUsersByIds(List.of(3L, 7L, 3L)))
+                .expectNext(new UserLookupResponseDto(List.of(row(3L).user()), List.of(7L)))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should reject more ids than configured maximum")
+    void getUsersByIds_WhenTooManyIds_ShouldFail() {
+        StepVerifier.create(userService.getUsersByIds(List.of(1L, 2L, 3L, 4L)))
+                .expectError(TooManyIdsException.class)
+                .verify();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should fail with PreconditionFailedException when version is stale")
+    void updateUser_WithStaleVersion_ShouldFail() {
+        UpdateUserRequestDto dto = new UpdateUserRequestDto(null, null, 30);
+        when(userRepository.updateNonNullFields(USER_ID, null, null, 30, 3L)).thenReturn(Mono.empty());
+        when(userRepository.existsById(USER_ID)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(userService.updateUser(USER_ID, dto, 3L))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        verify(userRepository, never()).saveOutboxEvent(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should fail with UserNotFoundException when updating missing user")
+    void updateUser_WhenUserDoesNotExist_ShouldFail() {
+        UpdateUserRequestDto dto = new UpdateUserRequestDto("Иван", null, null);
+        when(userRepository.updateNonNullFields(eq(USER_ID), eq("Иван"), isNull(), isNull(), isNull()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.updateUser(USER_ID, dto, null))
+                .expectError(UserNotFoundException.class)
+                .verify();
+        verify(userRepository, never()).existsById(any(Long.class));
+    }
+
+    @Test
+    @DisplayName("Should delete user and write DELETED event to outbox")
+    void deleteUser_ShouldSaveDeletedEvent() {
+        when(userRepository.deleteReturningById(USER_ID)).thenReturn(Mono.just(user));
+        when(userRepository.saveDeletedEvent(USER_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.deleteUser(USER_ID))
+                .verifyComplete();
+        verify(userRepository).saveDeletedEvent(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Should fail with UserNotFoundException when deleting missing user")
+    void deleteUser_WhenUserDoesNotExist_ShouldFail() {
+        when(userRepository.deleteReturningById(USER_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.deleteUser(USER_ID))
+                .expectError(UserNotFoundException.class)
+                .verify();
+        verify(userRepository, never()).saveDeletedEvent(any(Long.class));
+    }
+
+    private static UserSearchRow row(long id) {
+        return new UserSearchRow(new UserResponseDto(id, "User " + id, "user" + id + "@mail.com"), new UserKeyset(id, id));
+    }
+}